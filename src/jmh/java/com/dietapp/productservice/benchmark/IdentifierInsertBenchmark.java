@@ -0,0 +1,95 @@
+package com.dietapp.productservice.benchmark;
+
+import com.dietapp.productservice.model.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdentifierInsertBenchmark {
+    private static final int PRELOADED_ROWS = 1_000_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final String INSERT = "insert into product (id, name, kcal, type, version) values (?, ?, ?, ?, 0)";
+
+    @Param({"random", "time-ordered"})
+    private String strategy;
+
+    private Path databaseDirectory;
+    private Connection connection;
+    private Supplier<UUID> idGenerator;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        idGenerator = switch (strategy) {
+            case "random" -> UUID::randomUUID;
+            case "time-ordered" -> TimeOrderedUuidGenerator::generate;
+            default -> throw new IllegalArgumentException("Unsupported identifier strategy " + strategy);
+        };
+        // File based database with a small page cache, so index locality matters like it does on a real server
+        databaseDirectory = Files.createTempDirectory("identifier-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:%s/benchmark;CACHE_SIZE=16384".formatted(databaseDirectory), "sa", "");
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+            statement.execute("""
+                    create table product (
+                        id uuid primary key,
+                        name varchar(255) not null,
+                        kcal double precision not null,
+                        type varchar(255),
+                        version integer not null)""");
+        }
+        for (var i = 0; i < PRELOADED_ROWS; i += BATCH_SIZE) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (var files = Files.walk(databaseDirectory)) {
+            files.sorted(Comparator.reverseOrder())
+                    .forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int[] insertBatch() throws SQLException {
+        try (var statement = connection.prepareStatement(INSERT)) {
+            for (var i = 0; i < BATCH_SIZE; i++) {
+                statement.setObject(1, idGenerator.get());
+                statement.setString(2, "Product");
+                statement.setDouble(3, 73.0);
+                statement.setString(4, "FRUITS_AND_VEGETABLES");
+                statement.addBatch();
+            }
+            var result = statement.executeBatch();
+            connection.commit();
+            return result;
+        }
+    }
+}
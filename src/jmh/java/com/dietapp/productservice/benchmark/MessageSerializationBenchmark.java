@@ -0,0 +1,119 @@
+package com.dietapp.productservice.benchmark;
+
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.NotificationCode;
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import com.dietapp.productservice.serialization.BinaryMessageDeserializer;
+import com.dietapp.productservice.serialization.BinaryMessageSerializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageSerializationBenchmark {
+    private static final String TOPIC = "product.service";
+    private static final Map<String, String> PROPERTIES = Map.of("KCAL_AFTER_BOILED", "66.0", "FIBER", "2.2", "PROTEIN", "2.0");
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+    private CreateProductMessage createProductMessage;
+    private NotificationMessage notificationMessage;
+    private Headers updateHeaders;
+    private byte[] updatePayload;
+
+    @Setup
+    public void setUp() {
+        if (format.equals("json")) {
+            serializer = new JsonSerializer<>();
+            var jsonDeserializer = new JsonDeserializer<>();
+            jsonDeserializer.addTrustedPackages("com.dietapp.productservice.model");
+            jsonDeserializer.setRemoveTypeHeaders(false);
+            deserializer = jsonDeserializer;
+        } else {
+            serializer = new BinaryMessageSerializer();
+            deserializer = new BinaryMessageDeserializer();
+        }
+
+        createProductMessage = CreateProductMessage.builder()
+                .name("Potato")
+                .kcal(73.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(PROPERTIES)
+                .build();
+        notificationMessage = NotificationMessage.builder()
+                .message("Product was updated (Potato)")
+                .code(NotificationCode.PRODUCT_UPDATED)
+                .properties(Map.of("product", ProductDto.builder()
+                        .id(UUID.randomUUID())
+                        .name("Potato")
+                        .kcal(73.0)
+                        .type(ProductType.FRUITS_AND_VEGETABLES)
+                        .properties(PROPERTIES)
+                        .createdDate(Instant.now())
+                        .lastUpdatedDate(Instant.now())
+                        .version(2)
+                        .build()))
+                .build();
+
+        updateHeaders = new RecordHeaders();
+        updatePayload = serializer.serialize(TOPIC, updateHeaders, UpdateProductMessage.builder()
+                .id(UUID.randomUUID())
+                .name("Potato")
+                .kcal(74.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(PROPERTIES)
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeCreateProductMessage() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), createProductMessage);
+    }
+
+    @Benchmark
+    public byte[] serializeNotificationMessage() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), notificationMessage);
+    }
+
+    @Benchmark
+    public Object deserializeUpdateProductMessage() {
+        return deserializer.deserialize(TOPIC, updateHeaders, updatePayload);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dietapp.productservice.benchmark;
+
+import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CustomProperty;
+import com.dietapp.productservice.model.Product;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductHttpResponse;
+import com.dietapp.productservice.model.ProductType;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductMapperBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int propertyCount;
+
+    private ProductMapper productMapper;
+    private Product product;
+    private ProductDto productDto;
+
+    @Setup
+    public void setUp() {
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        product = Product.builder()
+                .id(UUID.randomUUID())
+                .name("Potato")
+                .kcal(73.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(new HashSet<>())
+                .version(1)
+                .createdDate(Instant.now())
+                .lastUpdatedDate(Instant.now())
+                .build();
+        for (var i = 0; i < propertyCount; i++) {
+            product.addProperty(CustomProperty.builder()
+                    .name("PROPERTY_" + i)
+                    .value(String.valueOf(i))
+                    .product(product)
+                    .build());
+        }
+        productDto = productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public ProductDto entityToDto() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product dtoToEntity() {
+        return productMapper.toEntity(productDto);
+    }
+
+    @Benchmark
+    public ProductHttpResponse dtoToHttpResponse() {
+        return productMapper.toHttpResponse(productDto);
+    }
+
+    @Benchmark
+    public ProductHttpResponse entityToHttpResponse() {
+        return productMapper.toHttpResponse(productMapper.toDto(product));
+    }
+}
@@ -0,0 +1,194 @@
+package com.dietapp.productservice.benchmark;
+
+import com.dietapp.productservice.configuration.CacheConfiguration;
+import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CursorPage;
+import com.dietapp.productservice.model.Product;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductLookupResult;
+import com.dietapp.productservice.model.ProductSummaryDto;
+import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.repository.ProductRepository;
+import com.dietapp.productservice.service.ProductCache;
+import com.dietapp.productservice.service.ProductService;
+import com.dietapp.productservice.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+    private static final int PRODUCTS = 1_000;
+    private static final int PROPERTIES_PER_PRODUCT = 5;
+    private static final int PAGE_SIZE = 25;
+    private static final int LOOKUP_SIZE = 50;
+
+    @Param({"table", "document"})
+    private String propertiesStorage;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private CacheManager cacheManager;
+    private UUID productId;
+    private List<UUID> lookupIds;
+    private String middleCursor;
+    private double kcal;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--product.properties.storage=" + propertiesStorage);
+        productService = context.getBean(ProductService.class);
+        cacheManager = context.getBean(CacheManager.class);
+
+        IntStream.range(0, PRODUCTS).forEach(i -> productService.create(createProduct("Product " + i)));
+        productId = productService.getAll(PageRequest.of(0, 1)).getContent().get(0).id();
+        lookupIds = productService.getAll(PageRequest.of(1, LOOKUP_SIZE)).map(ProductDto::id).getContent();
+        middleCursor = productService.scroll(null, PRODUCTS / 2).nextCursor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDto getByIdCached() {
+        return productService.getById(productId);
+    }
+
+    @Benchmark
+    public ProductDto getByIdUncached() {
+        cacheManager.getCache(ProductCache.PRODUCTS_BY_ID).evict(productId);
+        return productService.getById(productId);
+    }
+
+    @Benchmark
+    public List<ProductDto> getByIdLoopUncached() {
+        cacheManager.getCache(ProductCache.PRODUCTS_BY_ID).clear();
+        return lookupIds.stream()
+                .map(productService::getById)
+                .toList();
+    }
+
+    @Benchmark
+    public ProductLookupResult getByIdsUncached() {
+        cacheManager.getCache(ProductCache.PRODUCTS_BY_ID).clear();
+        return productService.getByIds(lookupIds);
+    }
+
+    @Benchmark
+    public Page<ProductDto> getAllFirstPage() {
+        return productService.getAll(PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<ProductSummaryDto> getAllSummariesFirstPage() {
+        return productService.getAllSummaries(PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<ProductDto> getAllDeepPage() {
+        return productService.getAll(PageRequest.of(PRODUCTS / PAGE_SIZE - 1, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public CursorPage<ProductDto> scrollFromMiddle() {
+        return productService.scroll(middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<ProductSummaryDto> scrollSummariesFromMiddle() {
+        return productService.scrollSummaries(middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ProductDto create() {
+        return productService.create(createProduct("Benchmark product"));
+    }
+
+    @Benchmark
+    public ProductDto update() {
+        kcal = kcal == 100 ? 0 : kcal + 1;
+        return productService.update(productId, ProductDto.builder()
+                .name("Product 0")
+                .kcal(kcal)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(createProperties())
+                .build());
+    }
+
+    private ProductDto createProduct(String name) {
+        return ProductDto.builder()
+                .name(name)
+                .kcal(73.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(createProperties())
+                .build();
+    }
+
+    private Map<String, String> createProperties() {
+        var properties = new HashMap<String, String>();
+        IntStream.range(0, PROPERTIES_PER_PRODUCT).forEach(i -> properties.put("PROPERTY_" + i, String.valueOf(i)));
+        return properties;
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class, ValidationAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    @ComponentScan(basePackageClasses = ProductMapper.class, useDefaultFilters = false,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ProductMapper.class))
+    @Import({ProductServiceImpl.class, ProductCache.class, CacheConfiguration.class})
+    static class BenchmarkConfiguration {
+    }
+}
@@ -0,0 +1,30 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.service.ProductCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Cache advice has to run before the transactional one, so a cache hit does not open a transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@Configuration
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.products.maximum-size}") long maximumSize,
+                                     @Value("${cache.products.time-to-live-seconds}") long timeToLiveSeconds) {
+        var cacheManager = new CaffeineCacheManager(ProductCache.PRODUCTS_BY_ID, ProductCache.PRODUCTS_BY_NAME);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+                .recordStats());
+        return cacheManager;
+    }
+}
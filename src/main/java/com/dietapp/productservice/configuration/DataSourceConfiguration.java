@@ -0,0 +1,79 @@
+package com.dietapp.productservice.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfiguration {
+    private static final String PRIMARY_HIKARI_PREFIX = "spring.datasource.hikari";
+    private static final String REPLICAS_PREFIX = "datasource.replicas";
+    private static final String POOL_NAME_PREFIX = "product-";
+    // Hikari only applies its default pool size when the pool starts, until then it reports -1
+    private static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+
+    // The proxy only fetches a connection on the first statement, after the transaction has been marked read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             Environment environment,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${datasource.replica.max-lag-seconds}") double maxLagSeconds,
+                                                             @Value("${datasource.bulkhead.acquire-timeout-ms}") long acquireTimeoutMs) {
+        var binder = Binder.get(environment);
+        var primary = createDataSource(binder, meterRegistry, acquireTimeoutMs, dataSourceProperties, ReplicaRoutingDataSource.PRIMARY);
+
+        var replicaProperties = binder.bind(REPLICAS_PREFIX, Bindable.listOf(DataSourceProperties.class)).orElse(List.of());
+        var replicas = new LinkedHashMap<String, DataSource>();
+        for (var i = 0; i < replicaProperties.size(); i++) {
+            var name = "replica-" + i;
+            replicas.put(name, createDataSource(binder, meterRegistry, acquireTimeoutMs, replicaProperties.get(i), name,
+                    "%s[%d].hikari".formatted(REPLICAS_PREFIX, i)));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagSeconds, meterRegistry);
+    }
+
+    // Replicas start from the primary pool settings and override them with their own.
+    // Each pool gets a bulkhead with one permit per connection, so callers are shed with a 503
+    // before they would queue in the pool and fail with its connection timeout.
+    private static DataSource createDataSource(Binder binder, MeterRegistry meterRegistry, long acquireTimeoutMs,
+                                               DataSourceProperties properties, String name, String... hikariOverridePrefixes) {
+        var dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind(PRIMARY_HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        for (var prefix : hikariOverridePrefixes) {
+            binder.bind(prefix, Bindable.ofInstance(dataSource));
+        }
+        dataSource.setPoolName(POOL_NAME_PREFIX + name);
+        if (dataSource.getMaximumPoolSize() < 1) {
+            dataSource.setMaximumPoolSize(DEFAULT_MAXIMUM_POOL_SIZE);
+        }
+        // The pools are not beans, so the pool metrics auto-configuration does not see them
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        if (acquireTimeoutMs >= dataSource.getConnectionTimeout()) {
+            throw new IllegalStateException("Bulkhead acquire timeout %d ms of %s must be less than its connection timeout %d ms"
+                    .formatted(acquireTimeoutMs, dataSource.getPoolName(), dataSource.getConnectionTimeout()));
+        }
+        return new BulkheadDataSource(dataSource, dataSource.getPoolName(), dataSource.getMaximumPoolSize(),
+                acquireTimeoutMs, meterRegistry);
+    }
+}
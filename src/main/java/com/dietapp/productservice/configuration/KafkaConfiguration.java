@@ -1,5 +1,8 @@
 package com.dietapp.productservice.configuration;
 
+import com.dietapp.productservice.serialization.BinaryMessageDeserializer;
+import com.dietapp.productservice.serialization.BinaryMessageSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -12,6 +15,8 @@ import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
@@ -21,37 +26,99 @@ import java.util.HashMap;
 
 @Configuration
 public class KafkaConfiguration {
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
     private static final String TRUSTED_PACKAGES = "com.dietapp.productservice.model";
+    private static final String JSON_FORMAT = "json";
+    private static final String BINARY_FORMAT = "binary";
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(ConsumerFactory<String, Object> consumerFactory) {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
         factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setObservationEnabled(true);
+        return factory;
+    }
+
+    @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(@Value("${kafka.bootstrap-servers}") String bootstrapServers,
+                                                                                                      @Value("${kafka.serialization.format}") String serializationFormat,
+                                                                                                      @Value("${kafka.batch.max-size}") int maxBatchSize,
+                                                                                                      @Value("${kafka.batch.linger-ms}") int lingerMs,
+                                                                                                      @Value("${kafka.batch.fetch-min-bytes}") int fetchMinBytes,
+                                                                                                      MeterRegistry meterRegistry) {
+        var configMap = createConsumerConfiguration(bootstrapServers, serializationFormat);
+        configMap.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxBatchSize);
+        configMap.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, lingerMs);
+        configMap.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+
+        var consumerFactory = new DefaultKafkaConsumerFactory<String, Object>(configMap);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setObservationEnabled(true);
         return factory;
     }
 
     @Bean
-    public ConsumerFactory<String, Object> consumerFactory(@Value("${kafka.bootstrap-servers}") String bootstrapServers) {
-        var configMap = new HashMap<String, Object>();
-        configMap.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configMap.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        configMap.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-        configMap.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configMap.put(JsonDeserializer.TRUSTED_PACKAGES, TRUSTED_PACKAGES);
-        return new DefaultKafkaConsumerFactory<>(configMap);
+    public ConsumerFactory<String, Object> consumerFactory(@Value("${kafka.bootstrap-servers}") String bootstrapServers,
+                                                           @Value("${kafka.serialization.format}") String serializationFormat,
+                                                           MeterRegistry meterRegistry) {
+        var consumerFactory = new DefaultKafkaConsumerFactory<String, Object>(createConsumerConfiguration(bootstrapServers, serializationFormat));
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
     }
 
     @Bean
-    public ProducerFactory<String, Object> producerFactory(@Value("${kafka.bootstrap-servers}") String bootstrapServers) {
+    public ProducerFactory<String, Object> producerFactory(@Value("${kafka.bootstrap-servers}") String bootstrapServers,
+                                                           @Value("${kafka.serialization.format}") String serializationFormat,
+                                                           @Value("${kafka.producer.compression-type}") String compressionType,
+                                                           @Value("${kafka.producer.linger-ms}") int lingerMs,
+                                                           @Value("${kafka.producer.batch-size}") int batchSize,
+                                                           @Value("${kafka.producer.buffer-memory}") long bufferMemory,
+                                                           @Value("${kafka.producer.max-block-ms}") long maxBlockMs,
+                                                           MeterRegistry meterRegistry) {
         var configuration = new HashMap<String, Object>();
         configuration.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configuration.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configuration.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, switch (serializationFormat) {
+            case JSON_FORMAT -> JsonSerializer.class;
+            case BINARY_FORMAT -> BinaryMessageSerializer.class;
+            default -> throw unsupportedFormat(serializationFormat);
+        });
         configuration.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configuration);
+        configuration.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configuration.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configuration.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configuration.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        configuration.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        var producerFactory = new DefaultKafkaProducerFactory<String, Object>(configuration);
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
     }
 
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
-        return new KafkaTemplate<>(producerFactory);
+        var kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        kafkaTemplate.setObservationEnabled(true);
+        return kafkaTemplate;
+    }
+
+    private HashMap<String, Object> createConsumerConfiguration(String bootstrapServers, String serializationFormat) {
+        var configMap = new HashMap<String, Object>();
+        configMap.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configMap.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configMap.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, switch (serializationFormat) {
+            case JSON_FORMAT -> JsonDeserializer.class;
+            case BINARY_FORMAT -> BinaryMessageDeserializer.class;
+            default -> throw unsupportedFormat(serializationFormat);
+        });
+        configMap.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configMap.put(JsonDeserializer.TRUSTED_PACKAGES, TRUSTED_PACKAGES);
+        return configMap;
+    }
+
+    private static IllegalArgumentException unsupportedFormat(String serializationFormat) {
+        return new IllegalArgumentException("Unsupported Kafka serialization format " + serializationFormat);
     }
 }
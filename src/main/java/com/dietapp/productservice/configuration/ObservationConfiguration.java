@@ -0,0 +1,39 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.exception.ProductNotFoundException;
+import com.dietapp.productservice.exception.ProductVersionMismatchException;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.ObservationFilter;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+@Configuration
+public class ObservationConfiguration {
+    public static final String OUTCOME_KEY = "outcome";
+    public static final String OPERATION_KEY = "operation";
+    private static final String OBSERVATION_PREFIX = "product.";
+
+    @Bean
+    public ObservationFilter outcomeObservationFilter() {
+        return context -> {
+            if (context.getName() != null && context.getName().startsWith(OBSERVATION_PREFIX)
+                    && context.getLowCardinalityKeyValue(OUTCOME_KEY) == null) {
+                context.addLowCardinalityKeyValue(KeyValue.of(OUTCOME_KEY, outcomeOf(context.getError())));
+            }
+            return context;
+        };
+    }
+
+    public static String outcomeOf(Throwable error) {
+        return switch (error) {
+            case null -> "success";
+            case ProductNotFoundException e -> "not-found";
+            case ProductVersionMismatchException e -> "optimistic-lock-failure";
+            case OptimisticLockingFailureException e -> "optimistic-lock-failure";
+            case OptimisticLockException e -> "optimistic-lock-failure";
+            default -> "error";
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.dietapp.productservice.configuration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Routes read-only transactions of the annotated method to the primary, for reads that must not lag behind writes
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
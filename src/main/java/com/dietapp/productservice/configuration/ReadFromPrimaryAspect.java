@@ -0,0 +1,22 @@
+package com.dietapp.productservice.configuration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class ReadFromPrimaryAspect {
+
+    // Connections are only fetched on the first statement, so the order relative to the transaction advice does not matter
+    @Around("@annotation(com.dietapp.productservice.configuration.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        var previous = ReplicaRoutingDataSource.setReadFromPrimary(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.setReadFromPrimary(previous);
+        }
+    }
+}
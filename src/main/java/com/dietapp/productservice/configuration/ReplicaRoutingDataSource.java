@@ -0,0 +1,153 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+    private static final String REPLICA_LAG_GAUGE = "product.datasource.replica.lag";
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 5;
+    // A replica whose WAL receiver is not streaming falls behind unnoticed, so its lag is unknown (null).
+    // While streaming, a replica that has replayed everything it received is up to date even if the primary is idle.
+    // Reading pg_stat_wal_receiver.status requires the pg_read_all_stats role.
+    private static final String REPLICA_LAG_QUERY = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then null
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else extract(epoch from now() - pg_last_xact_replay_timestamp())
+                   end""";
+
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, double maxLagSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.maxLagSeconds = maxLagSeconds;
+
+        var targetDataSources = new HashMap<Object, Object>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        this.replicas.forEach(replica -> Gauge.builder(REPLICA_LAG_GAUGE, replica, Replica::lagSeconds)
+                .tag("replica", replica.name)
+                .baseUnit("seconds")
+                .description("Replication lag of the replica, NaN when it cannot be reached or is not streaming")
+                .register(meterRegistry));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || READ_FROM_PRIMARY.get()) {
+            return PRIMARY;
+        }
+        var first = nextReplica.getAndIncrement();
+        for (var i = 0; i < replicas.size(); i++) {
+            var replica = replicas.get(Math.floorMod(first + i, replicas.size()));
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    static boolean setReadFromPrimary(boolean readFromPrimary) {
+        var previous = READ_FROM_PRIMARY.get();
+        if (readFromPrimary) {
+            READ_FROM_PRIMARY.set(true);
+        } else {
+            READ_FROM_PRIMARY.remove();
+        }
+        return previous;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval-ms}")
+    public void checkReplicas() {
+        replicas.forEach(this::checkReplica);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (var dataSource : getResolvedDataSources().values()) {
+                if (dataSource.isWrapperFor(Closeable.class)) {
+                    dataSource.unwrap(Closeable.class).close();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void checkReplica(Replica replica) {
+        try (var connection = replica.dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            statement.setQueryTimeout(HEALTH_CHECK_TIMEOUT_SECONDS);
+            try (var resultSet = statement.executeQuery(REPLICA_LAG_QUERY)) {
+                resultSet.next();
+                var lagSeconds = resultSet.getDouble(1);
+                replica.lagSeconds = resultSet.wasNull() ? Double.NaN : lagSeconds;
+            }
+            if (Double.isNaN(replica.lagSeconds) && replica.available) {
+                log.warn("Replica {} is not streaming WAL from the primary, read-only transactions fall back to other replicas or the primary",
+                        replica.name);
+            }
+        } catch (DatabaseBusyException e) {
+            // A replica whose pool is saturated by reads keeps its last known state until the next check
+            log.debug("Replica {} is busy, skipping its health check", replica.name);
+            return;
+        } catch (SQLException e) {
+            replica.lagSeconds = Double.NaN;
+            if (replica.available) {
+                log.warn("Replica {} is not reachable, read-only transactions fall back to other replicas or the primary", replica.name, e);
+            }
+        }
+
+        var available = replica.lagSeconds <= maxLagSeconds;
+        if (available && !replica.available) {
+            log.info("Replica {} is available for read-only transactions (lag: {} s)", replica.name, replica.lagSeconds);
+        } else if (!available && replica.available && !Double.isNaN(replica.lagSeconds)) {
+            log.warn("Replica {} lags {} s behind the primary, read-only transactions fall back to other replicas or the primary",
+                    replica.name, replica.lagSeconds);
+        }
+        replica.available = available;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // Replicas only receive reads after their first successful health check
+        private volatile boolean available;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private double lagSeconds() {
+            return lagSeconds;
+        }
+    }
+}
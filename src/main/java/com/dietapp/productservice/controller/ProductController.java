@@ -1,28 +1,62 @@
 package com.dietapp.productservice.controller;
 
+import com.dietapp.productservice.exception.ProductVersionMismatchException;
 import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CursorPage;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductFilterCriteria;
+import com.dietapp.productservice.model.ProductHttpRequest;
 import com.dietapp.productservice.model.ProductHttpResponse;
+import com.dietapp.productservice.model.ProductLookupHttpResponse;
+import com.dietapp.productservice.model.ProductOperationHttpResponse;
+import com.dietapp.productservice.model.ProductPatchHttpRequest;
+import com.dietapp.productservice.model.ProductSearchCriteria;
+import com.dietapp.productservice.model.ProductSearchMode;
+import com.dietapp.productservice.model.ProductSummaryHttpResponse;
+import com.dietapp.productservice.model.ProductType;
 import com.dietapp.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(ProductController.PRODUCTS_ENDPOINT)
 public class ProductController {
     public static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String SUMMARY_VIEW = "view=summary";
+    private static final String PROPERTY_PARAMETER_PREFIX = "property.";
+    private static final Pattern VERSION_ETAG_PATTERN = Pattern.compile("\"(\\d{1,9})\"");
 
     private final ProductService productService;
     private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<Page<ProductHttpResponse>> getAllProducts(@RequestParam(required = false, defaultValue = "0") int pageNumber,
@@ -32,15 +66,167 @@ public class ProductController {
                 .ok(products.map(productMapper::toHttpResponse));
     }
 
+    @GetMapping(params = SUMMARY_VIEW)
+    public ResponseEntity<Page<ProductSummaryHttpResponse>> getAllProductSummaries(@RequestParam(required = false, defaultValue = "0") int pageNumber,
+                                                                                   @RequestParam(required = false, defaultValue = "25") int pageSize) {
+        var products = productService.getAllSummaries(PageRequest.of(pageNumber, pageSize));
+        return ResponseEntity
+                .ok(products.map(productMapper::toHttpResponse));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ProductHttpResponse>> scrollProducts(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false, defaultValue = "25") int pageSize) {
+        var products = productService.scroll(cursor, pageSize);
+        return ResponseEntity
+                .ok(products.map(productMapper::toHttpResponse));
+    }
+
+    @GetMapping(value = "/scroll", params = SUMMARY_VIEW)
+    public ResponseEntity<CursorPage<ProductSummaryHttpResponse>> scrollProductSummaries(@RequestParam(required = false) String cursor,
+                                                                                         @RequestParam(required = false, defaultValue = "25") int pageSize) {
+        var products = productService.scrollSummaries(cursor, pageSize);
+        return ResponseEntity
+                .ok(products.map(productMapper::toHttpResponse));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummaryHttpResponse>> searchProducts(@RequestParam String query,
+                                                                           @RequestParam(required = false, defaultValue = "PREFIX") ProductSearchMode mode,
+                                                                           @RequestParam(required = false) ProductType type,
+                                                                           @RequestParam(required = false) Double kcalMin,
+                                                                           @RequestParam(required = false) Double kcalMax,
+                                                                           @RequestParam(required = false, defaultValue = "20") int limit) {
+        var criteria = ProductSearchCriteria.builder()
+                .query(query)
+                .mode(mode)
+                .type(type)
+                .kcalMin(kcalMin)
+                .kcalMax(kcalMax)
+                .limit(limit)
+                .build();
+        return ResponseEntity
+                .ok(productService.search(criteria).stream()
+                        .map(productMapper::toHttpResponse)
+                        .toList());
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<Page<ProductSummaryHttpResponse>> filterProducts(@RequestParam Map<String, String> parameters,
+                                                                           @RequestParam(required = false) ProductType type,
+                                                                           @RequestParam(required = false) Double kcalMin,
+                                                                           @RequestParam(required = false) Double kcalMax,
+                                                                           @RequestParam(required = false, defaultValue = "0") int pageNumber,
+                                                                           @RequestParam(required = false, defaultValue = "25") int pageSize) {
+        var properties = new HashMap<String, String>();
+        parameters.forEach((name, value) -> {
+            if (name.startsWith(PROPERTY_PARAMETER_PREFIX)) {
+                properties.put(name.substring(PROPERTY_PARAMETER_PREFIX.length()), value);
+            }
+        });
+        var criteria = ProductFilterCriteria.builder()
+                .properties(properties)
+                .type(type)
+                .kcalMin(kcalMin)
+                .kcalMax(kcalMax)
+                .build();
+        return ResponseEntity
+                .ok(productService.filter(criteria, PageRequest.of(pageNumber, pageSize))
+                        .map(productMapper::toHttpResponse));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince) {
+        StreamingResponseBody body = outputStream -> productService.export(updatedSince, product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(productMapper.toHttpResponse(product)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductHttpResponse> getProductById(@PathVariable UUID productId) {
+    public ResponseEntity<ProductHttpResponse> getProductById(@PathVariable UUID productId, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            var productVersion = productService.getVersion(productId);
+            if (webRequest.checkNotModified(toETag(productVersion.version()), toEpochMilli(productVersion.lastUpdatedDate()))) {
+                return null;
+            }
+        }
         var productDto = productService.getById(productId);
-        return ResponseEntity.ok(productMapper.toHttpResponse(productDto));
+        return withValidators(ResponseEntity.ok(), productDto)
+                .body(productMapper.toHttpResponse(productDto));
     }
 
-    @GetMapping
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductLookupHttpResponse> lookupProducts(@RequestBody List<UUID> productIds) {
+        return ResponseEntity
+                .ok(productMapper.toHttpResponse(productService.getByIds(productIds)));
+    }
+
+    @PatchMapping("/{productId}")
+    public ResponseEntity<ProductHttpResponse> patchProduct(@PathVariable UUID productId,
+                                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                            @RequestBody ProductPatchHttpRequest productPatchHttpRequest) {
+        return productService.patch(productId, productMapper.toPatchDto(productPatchHttpRequest), toExpectedVersion(ifMatch))
+                .map(productDto -> withValidators(ResponseEntity.ok(), productDto)
+                        .body(productMapper.toHttpResponse(productDto)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
+    @GetMapping(params = "name")
     public ResponseEntity<ProductHttpResponse> getByName(@RequestParam String name) {
         return ResponseEntity
                 .ok(productMapper.toHttpResponse(productService.getByName(name)));
     }
+
+    @GetMapping(params = {"name", SUMMARY_VIEW})
+    public ResponseEntity<ProductSummaryHttpResponse> getSummaryByName(@RequestParam String name) {
+        return ResponseEntity
+                .ok(productMapper.toHttpResponse(productService.getSummaryByName(name)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductOperationHttpResponse>> saveProducts(@RequestBody List<ProductHttpRequest> products) {
+        var operations = products.stream()
+                .map(productMapper::toOperation)
+                .toList();
+        return ResponseEntity
+                .ok(productService.processBatch(operations).stream()
+                        .map(productMapper::toHttpResponse)
+                        .toList());
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, ProductDto productDto) {
+        response.eTag(toETag(productDto.version()));
+        if (productDto.lastUpdatedDate() != null) {
+            response.lastModified(productDto.lastUpdatedDate());
+        }
+        return response;
+    }
+
+    private static String toETag(int version) {
+        return "\"%d\"".formatted(version);
+    }
+
+    private static long toEpochMilli(Instant instant) {
+        return instant == null ? -1 : instant.toEpochMilli();
+    }
+
+    private static Integer toExpectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var eTag = VERSION_ETAG_PATTERN.matcher(ifMatch.trim());
+        if (eTag.matches()) {
+            return Integer.parseInt(eTag.group(1));
+        }
+        throw new ProductVersionMismatchException("If-Match %s does not match any product version".formatted(ifMatch));
+    }
 }
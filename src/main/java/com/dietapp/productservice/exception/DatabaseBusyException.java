@@ -0,0 +1,15 @@
+package com.dietapp.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+
+    public DatabaseBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
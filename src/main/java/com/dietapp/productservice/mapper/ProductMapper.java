@@ -1,59 +1,132 @@
 package com.dietapp.productservice.mapper;
 
+import com.dietapp.productservice.model.BulkProductMessage;
 import com.dietapp.productservice.model.CreateProductMessage;
 import com.dietapp.productservice.model.CustomProperty;
+import com.dietapp.productservice.model.PatchProductMessage;
 import com.dietapp.productservice.model.Product;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductHttpRequest;
 import com.dietapp.productservice.model.ProductHttpResponse;
+import com.dietapp.productservice.model.ProductLookupHttpResponse;
+import com.dietapp.productservice.model.ProductLookupResult;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.ProductOperationHttpResponse;
+import com.dietapp.productservice.model.ProductOperationResult;
+import com.dietapp.productservice.model.ProductPatchDto;
+import com.dietapp.productservice.model.ProductPatchHttpRequest;
+import com.dietapp.productservice.model.ProductSummary;
+import com.dietapp.productservice.model.ProductSummaryDto;
+import com.dietapp.productservice.model.ProductSummaryHttpResponse;
+import com.dietapp.productservice.model.ProductVersion;
+import com.dietapp.productservice.model.ProductVersionDto;
 import com.dietapp.productservice.model.UpdateProductMessage;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Builder;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Mapper(builder = @Builder(disableBuilder = true))
 public interface ProductMapper {
 
-    @Mapping(target = "properties", ignore = true)
     ProductDto toDto(Product product);
 
-    @AfterMapping
-    default ProductDto mapDtoProperties(Product product, @MappingTarget ProductDto productDto) {
-        var propertiesMap = product.getProperties().stream()
-                .collect(Collectors.toMap(CustomProperty::getName, CustomProperty::getValue));
-
-        return ProductDto.builder()
-                .id(productDto.id())
-                .name(productDto.name())
-                .kcal(productDto.kcal())
-                .type(productDto.type())
-                .properties(propertiesMap)
-                .build();
+    @Mapping(target = "properties", source = "propertiesDocument", defaultExpression = "java(new java.util.HashMap<>())")
+    ProductDto toDocumentDto(Product product);
+
+    default Map<String, String> toPropertiesMap(Set<CustomProperty> properties) {
+        if (properties == null) {
+            return new HashMap<>();
+        }
+        var propertiesMap = HashMap.<String, String>newHashMap(properties.size());
+        for (var property : properties) {
+            propertiesMap.put(property.getName(), property.getValue());
+        }
+        return propertiesMap;
     }
 
     ProductDto toDto(CreateProductMessage createProductMessage);
 
     ProductDto toDto(UpdateProductMessage updateProductMessage);
 
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastUpdatedDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    ProductDto toDto(ProductHttpRequest productHttpRequest);
+
+    ProductPatchDto toPatchDto(ProductPatchHttpRequest productPatchHttpRequest);
+
+    ProductPatchDto toPatchDto(PatchProductMessage patchProductMessage);
+
+    ProductSummaryDto toSummaryDto(ProductSummary productSummary);
+
+    ProductVersionDto toVersionDto(ProductVersion productVersion);
+
+    ProductVersionDto toVersionDto(ProductDto productDto);
+
+    default ProductOperation toOperation(ProductHttpRequest productHttpRequest) {
+        return productHttpRequest.id() == null
+                ? ProductOperation.create(toDto(productHttpRequest))
+                : ProductOperation.update(productHttpRequest.id(), toDto(productHttpRequest));
+    }
+
+    default List<ProductOperation> toOperations(BulkProductMessage bulkProductMessage) {
+        var create = bulkProductMessage.create() == null ? List.<CreateProductMessage>of() : bulkProductMessage.create();
+        var update = bulkProductMessage.update() == null ? List.<UpdateProductMessage>of() : bulkProductMessage.update();
+        var operations = new ArrayList<ProductOperation>(create.size() + update.size());
+        create.forEach(message -> operations.add(ProductOperation.create(toDto(message))));
+        update.forEach(message -> operations.add(ProductOperation.update(message.id(), toDto(message))));
+        return operations;
+    }
+
     @Mapping(target = "properties", ignore = true)
+    @Mapping(target = "propertiesDocument", ignore = true)
     Product toEntity(ProductDto dto);
 
     @AfterMapping
     default Product mapEntityProperties(@MappingTarget Product product, ProductDto productDto) {
-        var propertiesSet = productDto.properties().entrySet().stream()
-                .map(entry -> CustomProperty.builder()
-                        .name(entry.getKey())
-                        .value(entry.getValue())
-                        .product(product)
-                        .build())
-                .collect(Collectors.toSet());
+        var properties = productDto.properties() == null ? Map.<String, String>of() : productDto.properties();
+        var propertiesSet = HashSet.<CustomProperty>newHashSet(properties.size());
+        properties.forEach((name, value) -> propertiesSet.add(CustomProperty.builder()
+                .name(name)
+                .value(value)
+                .product(product)
+                .build()));
 
         product.setProperties(propertiesSet);
         return product;
     }
 
+    @Mapping(target = "properties", qualifiedByName = "sharedProperties")
     ProductHttpResponse toHttpResponse(ProductDto productDto);
+
+    @Named("sharedProperties")
+    default Map<String, String> shareProperties(Map<String, String> properties) {
+        return properties;
+    }
+
+    ProductSummaryHttpResponse toHttpResponse(ProductSummaryDto productSummaryDto);
+
+    ProductLookupHttpResponse toHttpResponse(ProductLookupResult productLookupResult);
+
+    default ProductOperationHttpResponse toHttpResponse(ProductOperationResult result) {
+        var operation = result.operation();
+        var product = result.isSuccessful() ? result.product() : operation.product();
+        return ProductOperationHttpResponse.builder()
+                .operation(operation.type())
+                .id(result.isSuccessful() ? product.id() : operation.id())
+                .name(product == null ? null : product.name())
+                .successful(result.isSuccessful())
+                .error(result.isSuccessful() ? null : result.error().getMessage())
+                .build();
+    }
 }
@@ -0,0 +1,13 @@
+package com.dietapp.productservice.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record BulkProductMessage(List<CreateProductMessage> create,
+                                 List<UpdateProductMessage> update) {
+}
@@ -0,0 +1,20 @@
+package com.dietapp.productservice.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+import java.util.function.Function;
+
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record CursorPage<T>(List<T> content,
+                            String nextCursor) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -1,8 +1,6 @@
 package com.dietapp.productservice.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.validation.constraints.NotNull;
@@ -25,7 +23,7 @@ import java.util.UUID;
 public class CustomProperty {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @NotNull
@@ -49,6 +47,6 @@ public class CustomProperty {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getName());
+        return Objects.hashCode(getName());
     }
 }
@@ -0,0 +1,35 @@
+package com.dietapp.productservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedMessage implements Persistable<String> {
+
+    @Id
+    @NotNull
+    private String id;
+
+    @CreationTimestamp
+    private Instant processedDate;
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
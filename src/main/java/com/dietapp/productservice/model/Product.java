@@ -4,10 +4,9 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -18,10 +17,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -34,7 +37,7 @@ import java.util.UUID;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @NotNull
@@ -53,6 +56,9 @@ public class Product {
             orphanRemoval = true)
     private Set<CustomProperty> properties = new HashSet<>();
 
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> propertiesDocument;
+
     @Version
     private int version;
 
@@ -68,4 +74,25 @@ public class Product {
         }
         properties.add(customProperty);
     }
+
+    public void syncPropertiesDocument() {
+        var document = new HashMap<String, String>();
+        if (properties != null) {
+            properties.forEach(property -> document.put(property.getName(), property.getValue()));
+        }
+        propertiesDocument = document;
+    }
+
+    // With document storage the properties only live in the JSONB column, so no custom_property rows are written
+    public void movePropertiesToDocument() {
+        syncPropertiesDocument();
+        properties = new HashSet<>();
+    }
+
+    @PrePersist
+    public void initPropertiesDocument() {
+        if (propertiesDocument == null) {
+            syncPropertiesDocument();
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.dietapp.productservice.model;
+
+import com.dietapp.productservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+public record ProductCursor(Instant createdDate,
+                            UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor of(Product product) {
+        return new ProductCursor(product.getCreatedDate(), product.getId());
+    }
+
+    public static ProductCursor of(ProductScrollSummary productSummary) {
+        return new ProductCursor(productSummary.getCreatedDate(), productSummary.getId());
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separatorIndex = value.indexOf(SEPARATOR);
+            return new ProductCursor(Instant.parse(value.substring(0, separatorIndex)),
+                    UUID.fromString(value.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor %s".formatted(cursor));
+        }
+    }
+
+    public String encode() {
+        var value = createdDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,12 @@
+package com.dietapp.productservice.model;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+@Builder
+public record ProductFilterCriteria(Map<String, String> properties,
+                                    ProductType type,
+                                    Double kcalMin,
+                                    Double kcalMax) {
+}
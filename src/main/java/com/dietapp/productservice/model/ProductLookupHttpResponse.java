@@ -0,0 +1,14 @@
+package com.dietapp.productservice.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ProductLookupHttpResponse(List<ProductHttpResponse> products,
+                                        List<UUID> missingIds) {
+}
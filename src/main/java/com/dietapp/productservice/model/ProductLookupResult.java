@@ -0,0 +1,8 @@
+package com.dietapp.productservice.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProductLookupResult(List<ProductDto> products,
+                                  List<UUID> missingIds) {
+}
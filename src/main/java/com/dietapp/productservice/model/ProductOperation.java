@@ -0,0 +1,20 @@
+package com.dietapp.productservice.model;
+
+import java.util.UUID;
+
+public record ProductOperation(ProductOperationType type,
+                               UUID id,
+                               ProductDto product) {
+
+    public static ProductOperation create(ProductDto product) {
+        return new ProductOperation(ProductOperationType.CREATE, null, product);
+    }
+
+    public static ProductOperation update(UUID id, ProductDto product) {
+        return new ProductOperation(ProductOperationType.UPDATE, id, product);
+    }
+
+    public static ProductOperation delete(UUID id) {
+        return new ProductOperation(ProductOperationType.DELETE, id, null);
+    }
+}
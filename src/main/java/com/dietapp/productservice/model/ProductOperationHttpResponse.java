@@ -0,0 +1,16 @@
+package com.dietapp.productservice.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ProductOperationHttpResponse(ProductOperationType operation,
+                                           UUID id,
+                                           String name,
+                                           boolean successful,
+                                           String error) {
+}
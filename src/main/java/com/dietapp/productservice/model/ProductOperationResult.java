@@ -0,0 +1,18 @@
+package com.dietapp.productservice.model;
+
+public record ProductOperationResult(ProductOperation operation,
+                                     ProductDto product,
+                                     Exception error) {
+
+    public static ProductOperationResult success(ProductOperation operation, ProductDto product) {
+        return new ProductOperationResult(operation, product, null);
+    }
+
+    public static ProductOperationResult failure(ProductOperation operation, Exception error) {
+        return new ProductOperationResult(operation, null, error);
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
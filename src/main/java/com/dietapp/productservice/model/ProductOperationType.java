@@ -0,0 +1,7 @@
+package com.dietapp.productservice.model;
+
+public enum ProductOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
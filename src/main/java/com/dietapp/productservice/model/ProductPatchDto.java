@@ -0,0 +1,12 @@
+package com.dietapp.productservice.model;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+@Builder
+public record ProductPatchDto(String name,
+                              Double kcal,
+                              ProductType type,
+                              Map<String, String> properties) {
+}
@@ -0,0 +1,6 @@
+package com.dietapp.productservice.model;
+
+public enum ProductPropertiesStorage {
+    TABLE,
+    DOCUMENT
+}
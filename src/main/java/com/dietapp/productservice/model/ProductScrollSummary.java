@@ -0,0 +1,7 @@
+package com.dietapp.productservice.model;
+
+import java.time.Instant;
+
+public interface ProductScrollSummary extends ProductSummary {
+    Instant getCreatedDate();
+}
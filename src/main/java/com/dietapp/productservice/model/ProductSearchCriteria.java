@@ -0,0 +1,12 @@
+package com.dietapp.productservice.model;
+
+import lombok.Builder;
+
+@Builder
+public record ProductSearchCriteria(String query,
+                                    ProductSearchMode mode,
+                                    ProductType type,
+                                    Double kcalMin,
+                                    Double kcalMax,
+                                    int limit) {
+}
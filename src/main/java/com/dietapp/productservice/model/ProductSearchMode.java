@@ -0,0 +1,6 @@
+package com.dietapp.productservice.model;
+
+public enum ProductSearchMode {
+    PREFIX,
+    FUZZY
+}
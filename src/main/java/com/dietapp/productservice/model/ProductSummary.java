@@ -0,0 +1,13 @@
+package com.dietapp.productservice.model;
+
+import java.util.UUID;
+
+public interface ProductSummary {
+    UUID getId();
+
+    String getName();
+
+    double getKcal();
+
+    ProductType getType();
+}
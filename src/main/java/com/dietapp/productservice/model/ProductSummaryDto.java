@@ -0,0 +1,12 @@
+package com.dietapp.productservice.model;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record ProductSummaryDto(UUID id,
+                                String name,
+                                double kcal,
+                                ProductType type) {
+}
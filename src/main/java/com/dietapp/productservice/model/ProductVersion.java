@@ -0,0 +1,9 @@
+package com.dietapp.productservice.model;
+
+import java.time.Instant;
+
+public interface ProductVersion {
+    int getVersion();
+
+    Instant getLastUpdatedDate();
+}
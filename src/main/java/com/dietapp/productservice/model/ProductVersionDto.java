@@ -0,0 +1,10 @@
+package com.dietapp.productservice.model;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record ProductVersionDto(int version,
+                                Instant lastUpdatedDate) {
+}
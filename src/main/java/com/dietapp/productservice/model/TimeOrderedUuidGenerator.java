@@ -0,0 +1,46 @@
+package com.dietapp.productservice.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+
+    // Unix milliseconds shifted left by the sequence bits, so ids generated within the same millisecond stay ordered
+    private static final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    public static UUID generate() {
+        var timestampAndSequence = nextTimestampAndSequence();
+        var timestamp = timestampAndSequence >>> SEQUENCE_BITS;
+        var sequence = timestampAndSequence & SEQUENCE_MASK;
+        var mostSignificantBits = timestamp << 16 | VERSION_7 | sequence;
+        var leastSignificantBits = ThreadLocalRandom.current().nextLong() & VARIANT_MASK | VARIANT_RFC_4122;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private static long nextTimestampAndSequence() {
+        var now = System.currentTimeMillis() << SEQUENCE_BITS;
+        return lastTimestampAndSequence.updateAndGet(last -> Math.max(now, last + 1));
+    }
+}
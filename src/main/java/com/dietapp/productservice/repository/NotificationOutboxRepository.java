@@ -0,0 +1,13 @@
+package com.dietapp.productservice.repository;
+
+import com.dietapp.productservice.model.NotificationOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxMessage, Long> {
+
+    @Query(value = "select * from notification_outbox order by id limit :limit for update skip locked", nativeQuery = true)
+    List<NotificationOutboxMessage> lockNextBatch(int limit);
+}
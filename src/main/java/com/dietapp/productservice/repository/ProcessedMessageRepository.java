@@ -0,0 +1,15 @@
+package com.dietapp.productservice.repository;
+
+import com.dietapp.productservice.model.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    @Modifying
+    @Query("delete from ProcessedMessage m where m.processedDate < :threshold")
+    int deleteAllProcessedBefore(Instant threshold);
+}
@@ -1,11 +1,115 @@
 package com.dietapp.productservice.repository;
 
 import com.dietapp.productservice.model.Product;
+import com.dietapp.productservice.model.ProductScrollSummary;
+import com.dietapp.productservice.model.ProductSummary;
+import com.dietapp.productservice.model.ProductVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+    @Override
+    @EntityGraph(attributePaths = "properties")
+    Optional<Product> findById(UUID id);
+
+    @EntityGraph(attributePaths = "properties")
     Optional<Product> findByName(String name);
+
+    @Query("select p.id as id, p.name as name, p.kcal as kcal, p.type as type from Product p where p.name = :name")
+    Optional<ProductSummary> findSummaryByName(String name);
+
+    @Query("select p.version as version, p.lastUpdatedDate as lastUpdatedDate from Product p where p.id = :id")
+    Optional<ProductVersion> findVersionById(UUID id);
+
+    @EntityGraph(attributePaths = "properties")
+    List<Product> findAllWithPropertiesByIdIn(Collection<UUID> ids);
+
+    @Query("select p from Product p where p.name = :name")
+    Optional<Product> findWithoutPropertiesByName(String name);
+
+    List<Product> findAllByIdIn(Collection<UUID> ids);
+
+    @Query("select p from Product p order by p.createdDate, p.id")
+    List<Product> findFirstPage(Limit limit);
+
+    @Query("""
+            select p from Product p
+            where (p.createdDate, p.id) > (:createdDate, :id)
+            order by p.createdDate, p.id""")
+    List<Product> findPageAfter(Instant createdDate, UUID id, Limit limit);
+
+    @Query(value = "select p.id as id, p.name as name, p.kcal as kcal, p.type as type from Product p",
+            countQuery = "select count(p) from Product p")
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    @Query("""
+            select p.id as id, p.name as name, p.kcal as kcal, p.type as type, p.createdDate as createdDate
+            from Product p
+            order by p.createdDate, p.id""")
+    List<ProductScrollSummary> findFirstSummaryPage(Limit limit);
+
+    @Query("""
+            select p.id as id, p.name as name, p.kcal as kcal, p.type as type, p.createdDate as createdDate
+            from Product p
+            where (p.createdDate, p.id) > (:createdDate, :id)
+            order by p.createdDate, p.id""")
+    List<ProductScrollSummary> findSummaryPageAfter(Instant createdDate, UUID id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Product p")
+    Stream<Product> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Product p where p.lastUpdatedDate >= :updatedSince order by p.lastUpdatedDate")
+    Stream<Product> streamAllUpdatedSince(Instant updatedSince);
+
+    @Query(value = """
+            select p.id as id, p.name as name, p.kcal as kcal, p.type as type
+            from product p
+            where lower(p.name) like lower(:prefix) escape '\\'
+              and (:anyType or p.type = :type)
+              and p.kcal between :kcalMin and :kcalMax
+            order by lower(p.name), p.id
+            limit :limit""", nativeQuery = true)
+    List<ProductSummary> searchByNamePrefix(String prefix, boolean anyType, String type, double kcalMin, double kcalMax, int limit);
+
+    @Query(value = """
+            select p.id as id, p.name as name, p.kcal as kcal, p.type as type
+            from product p
+            where lower(p.name) % lower(:query)
+              and (:anyType or p.type = :type)
+              and p.kcal between :kcalMin and :kcalMax
+            order by similarity(lower(p.name), lower(:query)) desc, p.id
+            limit :limit""", nativeQuery = true)
+    List<ProductSummary> searchByNameSimilarity(String query, boolean anyType, String type, double kcalMin, double kcalMax, int limit);
+
+    @Query(value = """
+            select p.id as id, p.name as name, p.kcal as kcal, p.type as type
+            from product p
+            where p.properties_document @> cast(:properties as jsonb)
+              and (:anyType or p.type = :type)
+              and p.kcal between :kcalMin and :kcalMax
+            order by lower(p.name), p.id""",
+            countQuery = """
+                    select count(*)
+                    from product p
+                    where p.properties_document @> cast(:properties as jsonb)
+                      and (:anyType or p.type = :type)
+                      and p.kcal between :kcalMin and :kcalMax""",
+            nativeQuery = true)
+    Page<ProductSummary> filter(String properties, boolean anyType, String type, double kcalMin, double kcalMax, Pageable pageable);
 }
@@ -0,0 +1,439 @@
+package com.dietapp.productservice.serialization;
+
+import com.dietapp.productservice.model.BulkProductMessage;
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.NotificationCode;
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Enum constants are written by ordinal, so new constants have to be appended at the end
+final class BinaryMessageCodec {
+    static final byte FORMAT_VERSION = 1;
+
+    private static final byte CREATE_PRODUCT = 1;
+    private static final byte UPDATE_PRODUCT = 2;
+    private static final byte DELETE_PRODUCT = 3;
+    private static final byte BULK_PRODUCT = 4;
+    private static final byte NOTIFICATION = 5;
+    private static final byte PATCH_PRODUCT = 6;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte BOOLEAN_VALUE = 4;
+    private static final byte MAP_VALUE = 5;
+    private static final byte LIST_VALUE = 6;
+    private static final byte PRODUCT_VALUE = 7;
+    private static final int MAX_VALUE_DEPTH = 32;
+
+    private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+    private static final NotificationCode[] NOTIFICATION_CODES = NotificationCode.values();
+
+    private BinaryMessageCodec() {
+    }
+
+    static byte[] encode(Object message) {
+        var bytes = new ByteArrayOutputStream(128);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(FORMAT_VERSION);
+            switch (message) {
+                case CreateProductMessage createProductMessage -> {
+                    output.writeByte(CREATE_PRODUCT);
+                    writeCreateProduct(output, createProductMessage);
+                }
+                case UpdateProductMessage updateProductMessage -> {
+                    output.writeByte(UPDATE_PRODUCT);
+                    writeUpdateProduct(output, updateProductMessage);
+                }
+                case DeleteProductMessage deleteProductMessage -> {
+                    output.writeByte(DELETE_PRODUCT);
+                    writeUuid(output, deleteProductMessage.id());
+                }
+                case BulkProductMessage bulkProductMessage -> {
+                    output.writeByte(BULK_PRODUCT);
+                    writeList(output, bulkProductMessage.create(), BinaryMessageCodec::writeCreateProduct);
+                    writeList(output, bulkProductMessage.update(), BinaryMessageCodec::writeUpdateProduct);
+                }
+                case PatchProductMessage patchProductMessage -> {
+                    output.writeByte(PATCH_PRODUCT);
+                    writePatchProduct(output, patchProductMessage);
+                }
+                case NotificationMessage notificationMessage -> {
+                    output.writeByte(NOTIFICATION);
+                    writeString(output, notificationMessage.message());
+                    writeEnum(output, notificationMessage.code());
+                    writeValue(output, notificationMessage.properties());
+                }
+                default -> throw new SerializationException("Unsupported message type " + message.getClass());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Message cannot be encoded", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object decode(byte[] data) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(data))) {
+            var version = input.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new SerializationException("Unsupported binary format version " + version);
+            }
+            var messageType = input.readByte();
+            return switch (messageType) {
+                case CREATE_PRODUCT -> readCreateProduct(input);
+                case UPDATE_PRODUCT -> readUpdateProduct(input);
+                case DELETE_PRODUCT -> new DeleteProductMessage(readUuid(input));
+                case BULK_PRODUCT -> BulkProductMessage.builder()
+                        .create(readList(input, BinaryMessageCodec::readCreateProduct))
+                        .update(readList(input, BinaryMessageCodec::readUpdateProduct))
+                        .build();
+                case PATCH_PRODUCT -> readPatchProduct(input);
+                case NOTIFICATION -> NotificationMessage.builder()
+                        .message(readString(input))
+                        .code(readEnum(input, NOTIFICATION_CODES))
+                        .properties((Map<String, Object>) readValue(input, 0))
+                        .build();
+                default -> throw new SerializationException("Unsupported message type tag " + messageType);
+            };
+        } catch (IOException | RuntimeException e) {
+            throw e instanceof SerializationException serializationException
+                    ? serializationException
+                    : new SerializationException("Message cannot be decoded", e);
+        }
+    }
+
+    private static void writeCreateProduct(DataOutput output, CreateProductMessage message) throws IOException {
+        writeString(output, message.name());
+        output.writeDouble(message.kcal());
+        writeEnum(output, message.type());
+        writeStringMap(output, message.properties());
+    }
+
+    private static CreateProductMessage readCreateProduct(DataInputStream input) throws IOException {
+        return CreateProductMessage.builder()
+                .name(readString(input))
+                .kcal(input.readDouble())
+                .type(readEnum(input, PRODUCT_TYPES))
+                .properties(readStringMap(input))
+                .build();
+    }
+
+    private static void writeUpdateProduct(DataOutput output, UpdateProductMessage message) throws IOException {
+        writeUuid(output, message.id());
+        writeString(output, message.name());
+        output.writeDouble(message.kcal());
+        writeEnum(output, message.type());
+        writeStringMap(output, message.properties());
+    }
+
+    private static UpdateProductMessage readUpdateProduct(DataInputStream input) throws IOException {
+        return UpdateProductMessage.builder()
+                .id(readUuid(input))
+                .name(readString(input))
+                .kcal(input.readDouble())
+                .type(readEnum(input, PRODUCT_TYPES))
+                .properties(readStringMap(input))
+                .build();
+    }
+
+    private static void writePatchProduct(DataOutput output, PatchProductMessage message) throws IOException {
+        writeUuid(output, message.id());
+        writeString(output, message.name());
+        writeNullableDouble(output, message.kcal());
+        writeEnum(output, message.type());
+        writeStringMap(output, message.properties());
+    }
+
+    private static PatchProductMessage readPatchProduct(DataInputStream input) throws IOException {
+        return PatchProductMessage.builder()
+                .id(readUuid(input))
+                .name(readString(input))
+                .kcal(readNullableDouble(input))
+                .type(readEnum(input, PRODUCT_TYPES))
+                .properties(readStringMap(input))
+                .build();
+    }
+
+    private static void writeProduct(DataOutput output, ProductDto product) throws IOException {
+        writeUuid(output, product.id());
+        writeString(output, product.name());
+        output.writeDouble(product.kcal());
+        writeEnum(output, product.type());
+        writeStringMap(output, product.properties());
+        writeInstant(output, product.createdDate());
+        writeInstant(output, product.lastUpdatedDate());
+        writeVarInt(output, product.version());
+    }
+
+    private static ProductDto readProduct(DataInputStream input) throws IOException {
+        return ProductDto.builder()
+                .id(readUuid(input))
+                .name(readString(input))
+                .kcal(input.readDouble())
+                .type(readEnum(input, PRODUCT_TYPES))
+                .properties(readStringMap(input))
+                .createdDate(readInstant(input))
+                .lastUpdatedDate(readInstant(input))
+                .version(readVarInt(input))
+                .build();
+    }
+
+    private static void writeValue(DataOutput output, Object value) throws IOException {
+        switch (value) {
+            case null -> output.writeByte(NULL_VALUE);
+            case String string -> {
+                output.writeByte(STRING_VALUE);
+                writeString(output, string);
+            }
+            case Integer number -> {
+                output.writeByte(LONG_VALUE);
+                output.writeLong(number);
+            }
+            case Long number -> {
+                output.writeByte(LONG_VALUE);
+                output.writeLong(number);
+            }
+            case Number number -> {
+                output.writeByte(DOUBLE_VALUE);
+                output.writeDouble(number.doubleValue());
+            }
+            case Boolean bool -> {
+                output.writeByte(BOOLEAN_VALUE);
+                output.writeBoolean(bool);
+            }
+            case ProductDto product -> {
+                output.writeByte(PRODUCT_VALUE);
+                writeProduct(output, product);
+            }
+            case Map<?, ?> map -> {
+                output.writeByte(MAP_VALUE);
+                writeVarInt(output, map.size());
+                for (var entry : map.entrySet()) {
+                    writeString(output, String.valueOf(entry.getKey()));
+                    writeValue(output, entry.getValue());
+                }
+            }
+            case List<?> list -> {
+                output.writeByte(LIST_VALUE);
+                writeVarInt(output, list.size());
+                for (var element : list) {
+                    writeValue(output, element);
+                }
+            }
+            default -> throw new SerializationException("Unsupported notification property type " + value.getClass());
+        }
+    }
+
+    private static Object readValue(DataInputStream input, int depth) throws IOException {
+        if (depth > MAX_VALUE_DEPTH) {
+            throw new SerializationException("Notification properties are nested deeper than " + MAX_VALUE_DEPTH);
+        }
+        var valueType = input.readByte();
+        return switch (valueType) {
+            case NULL_VALUE -> null;
+            case STRING_VALUE -> readString(input);
+            case LONG_VALUE -> input.readLong();
+            case DOUBLE_VALUE -> input.readDouble();
+            case BOOLEAN_VALUE -> input.readBoolean();
+            case PRODUCT_VALUE -> readProduct(input);
+            case MAP_VALUE -> {
+                var size = readSize(input, readVarInt(input), 2);
+                var map = HashMap.<String, Object>newHashMap(size);
+                for (var i = 0; i < size; i++) {
+                    map.put(readString(input), readValue(input, depth + 1));
+                }
+                yield map;
+            }
+            case LIST_VALUE -> {
+                var size = readSize(input, readVarInt(input), 1);
+                var list = new ArrayList<>(size);
+                for (var i = 0; i < size; i++) {
+                    list.add(readValue(input, depth + 1));
+                }
+                yield list;
+            }
+            default -> throw new SerializationException("Unsupported value type tag " + valueType);
+        };
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length + 1);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        var length = readNullableSize(input, 1);
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStringMap(DataOutput output, Map<String, String> map) throws IOException {
+        if (map == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+        writeVarInt(output, map.size() + 1);
+        for (var entry : map.entrySet()) {
+            writeString(output, entry.getKey());
+            writeString(output, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(DataInputStream input) throws IOException {
+        var size = readNullableSize(input, 2);
+        if (size < 0) {
+            return null;
+        }
+        var map = HashMap.<String, String>newHashMap(size);
+        for (var i = 0; i < size; i++) {
+            map.put(readString(input), readString(input));
+        }
+        return map;
+    }
+
+    private static <T> void writeList(DataOutput output, List<T> list, ElementWriter<T> writer) throws IOException {
+        if (list == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+        writeVarInt(output, list.size() + 1);
+        for (var element : list) {
+            writer.write(output, element);
+        }
+    }
+
+    private static <T> List<T> readList(DataInputStream input, ElementReader<T> reader) throws IOException {
+        var size = readNullableSize(input, 1);
+        if (size < 0) {
+            return null;
+        }
+        var list = new ArrayList<T>(size);
+        for (var i = 0; i < size; i++) {
+            list.add(reader.read(input));
+        }
+        return list;
+    }
+
+    private static void writeUuid(DataOutput output, UUID value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.getMostSignificantBits());
+            output.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream input) throws IOException {
+        return input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+    }
+
+    private static void writeNullableDouble(DataOutput output, Double value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeDouble(value);
+        }
+    }
+
+    private static Double readNullableDouble(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readDouble() : null;
+    }
+
+    private static void writeInstant(DataOutput output, Instant value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.getEpochSecond());
+            writeVarInt(output, value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream input) throws IOException {
+        return input.readBoolean() ? Instant.ofEpochSecond(input.readLong(), readVarInt(input)) : null;
+    }
+
+    private static void writeEnum(DataOutput output, Enum<?> value) throws IOException {
+        writeVarInt(output, value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream input, E[] values) throws IOException {
+        var ordinal = readVarInt(input) - 1;
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new SerializationException("Unknown %s ordinal %d".formatted(values.getClass().getComponentType().getSimpleName(), ordinal));
+        }
+        return values[ordinal];
+    }
+
+    // Sizes come from untrusted input, so they are checked against the bytes left before anything is allocated
+    private static int readNullableSize(DataInputStream input, int minElementBytes) throws IOException {
+        var size = readVarInt(input);
+        return size == 0 ? -1 : readSize(input, size - 1, minElementBytes);
+    }
+
+    private static int readSize(DataInputStream input, int size, int minElementBytes) throws IOException {
+        if (size < 0 || size > input.available() / minElementBytes) {
+            throw new SerializationException("Malformed length %d, %d bytes left".formatted(size, input.available()));
+        }
+        return size;
+    }
+
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream input) throws IOException {
+        var value = 0;
+        for (var shift = 0; shift < 32; shift += 7) {
+            var current = input.readUnsignedByte();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed variable-length integer");
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(DataOutput output, T element) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(DataInputStream input) throws IOException;
+    }
+}
@@ -0,0 +1,11 @@
+package com.dietapp.productservice.serialization;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class BinaryMessageDeserializer implements Deserializer<Object> {
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : BinaryMessageCodec.decode(data);
+    }
+}
@@ -0,0 +1,11 @@
+package com.dietapp.productservice.serialization;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class BinaryMessageSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : BinaryMessageCodec.encode(data);
+    }
+}
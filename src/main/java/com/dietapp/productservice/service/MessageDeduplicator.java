@@ -0,0 +1,100 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.ProcessedMessage;
+import com.dietapp.productservice.repository.ProcessedMessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+@Slf4j
+@Component
+public class MessageDeduplicator {
+    public static final String IDEMPOTENCY_KEY_HEADER = "idempotency-key";
+
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final Duration timeToLive;
+    private final Cache<String, Boolean> processedWindow;
+
+    public MessageDeduplicator(ProcessedMessageRepository processedMessageRepository,
+                               @Value("${kafka.deduplication.window-size}") long windowSize,
+                               @Value("${kafka.deduplication.time-to-live-seconds}") long timeToLiveSeconds) {
+        this.processedMessageRepository = processedMessageRepository;
+        this.timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        this.processedWindow = Caffeine.newBuilder()
+                .maximumSize(windowSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    public String keyOf(ConsumerRecord<?, ?> record) {
+        var header = record.headers().lastHeader(IDEMPOTENCY_KEY_HEADER);
+        return keyOf(header == null ? null : header.value(), record.topic(), record.partition(), record.offset());
+    }
+
+    // Without a producer supplied key only redeliveries of the same record are duplicates, so identical
+    // payloads sent again on purpose (e.g. re-creating a deleted product) are still processed
+    public String keyOf(byte[] idempotencyKey, String topic, int partition, long offset) {
+        if (idempotencyKey != null && idempotencyKey.length > 0) {
+            return "header:" + digest(idempotencyKey);
+        }
+        return "record:%s-%d@%d".formatted(topic, partition, offset);
+    }
+
+    public boolean isDuplicate(String key) {
+        if (processedWindow.getIfPresent(key) != null) {
+            return true;
+        }
+        if (processedMessageRepository.existsById(key)) {
+            processedWindow.put(key, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    public void markProcessed(String key) {
+        processedMessageRepository.save(ProcessedMessage.builder()
+                .id(key)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    processedWindow.put(key, Boolean.TRUE);
+                }
+            });
+        } else {
+            processedWindow.put(key, Boolean.TRUE);
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${kafka.deduplication.cleanup-interval-ms}")
+    public void removeExpired() {
+        var removed = processedMessageRepository.deleteAllProcessedBefore(Instant.now().minus(timeToLive));
+        if (removed > 0) {
+            log.debug("Removed {} expired processed message keys", removed);
+        }
+    }
+
+    private static String digest(byte[] value) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
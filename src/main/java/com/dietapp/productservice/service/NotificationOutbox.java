@@ -0,0 +1,42 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.NotificationOutboxMessage;
+import com.dietapp.productservice.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void add(String topic, NotificationMessage message) {
+        notificationOutboxRepository.save(NotificationOutboxMessage.builder()
+                .topic(topic)
+                .payload(writePayload(message))
+                .build());
+    }
+
+    NotificationMessage readPayload(NotificationOutboxMessage message) {
+        try {
+            return objectMapper.readValue(message.getPayload(), NotificationMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed notification outbox message %d".formatted(message.getId()), e);
+        }
+    }
+
+    private String writePayload(NotificationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Notification message cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.configuration.ObservationConfiguration;
+import com.dietapp.productservice.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxRelay {
+    private static final String RELAY_TIMER = "product.notification.relay";
+    private static final String RELAYED_COUNTER = "product.notification.relayed";
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationOutbox notificationOutbox;
+    private final NotificationPublisher notificationPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${notification.outbox.send-timeout-ms}")
+    private long sendTimeoutMs;
+
+    @Value("${notification.outbox.max-backlog}")
+    private long maxBacklog;
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+                applyBacklogBackpressure(relayed != null && relayed == batchSize);
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            log.warn("Notification outbox relay failed, remaining messages will be retried", e);
+        }
+    }
+
+    private int relayBatch() {
+        var messages = notificationOutboxRepository.lockNextBatch(batchSize);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        var sample = Timer.start(meterRegistry);
+        var outcome = ObservationConfiguration.outcomeOf(null);
+        try {
+            var sends = messages.stream()
+                    .map(message -> notificationPublisher.publish(message.getTopic(), notificationOutbox.readPayload(message)))
+                    .toArray(CompletableFuture[]::new);
+            awaitSent(CompletableFuture.allOf(sends));
+        } catch (RuntimeException e) {
+            outcome = ObservationConfiguration.outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(RELAY_TIMER, ObservationConfiguration.OUTCOME_KEY, outcome));
+            meterRegistry.counter(RELAYED_COUNTER, ObservationConfiguration.OUTCOME_KEY, outcome).increment(messages.size());
+        }
+
+        notificationOutboxRepository.deleteAllInBatch(messages);
+        log.debug("Relayed {} notification messages (last id: {})", messages.size(), messages.get(messages.size() - 1).getId());
+        return messages.size();
+    }
+
+    // Product listeners write notifications faster than they are relayed, so they are paused until the backlog is halved
+    private void applyBacklogBackpressure(boolean fullBatch) {
+        var backlog = fullBatch ? notificationOutboxRepository.count() : 0;
+        if (backlog > maxBacklog) {
+            notificationPublisher.pauseConsumersForOutboxBacklog(backlog);
+        } else if (backlog <= maxBacklog / 2) {
+            notificationPublisher.resumeConsumersAfterOutboxBacklog();
+        }
+    }
+
+    private void awaitSent(CompletableFuture<Void> sends) {
+        try {
+            sends.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying notification messages", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Notification messages were not acknowledged by Kafka", e);
+        }
+    }
+}
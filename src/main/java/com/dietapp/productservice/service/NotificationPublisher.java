@@ -0,0 +1,154 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.configuration.ObservationConfiguration;
+import com.dietapp.productservice.model.NotificationMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.BufferExhaustedException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class NotificationPublisher {
+    private static final String DELIVERY_TIMER = "product.notification.delivery";
+    private static final String DELIVERY_FAILURES = "product.notification.delivery.failures";
+    private static final String IN_FLIGHT_GAUGE = "product.notification.in.flight";
+    private static final String EXCEPTION_KEY = "exception";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlight;
+    private final int resumeThreshold;
+    private final long acquireTimeoutMs;
+    private final Set<Backpressure> backpressure = EnumSet.noneOf(Backpressure.class);
+
+    public NotificationPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                 KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.publisher.max-in-flight}") int maxInFlight,
+                                 @Value("${notification.publisher.acquire-timeout-ms}") long acquireTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.resumeThreshold = maxInFlight / 2;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Notification messages sent to Kafka and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, Object>> publish(String topic, NotificationMessage message) {
+        acquirePermit();
+        if (inFlight.availablePermits() == 0) {
+            applyBackpressure(Backpressure.PRODUCER, "notification publisher reached its in-flight limit");
+        }
+
+        var sample = Timer.start(meterRegistry);
+        try {
+            return kafkaTemplate.send(topic, message)
+                    .whenComplete((result, error) -> onCompleted(sample, error));
+        } catch (RuntimeException e) {
+            onCompleted(sample, e);
+            throw e;
+        }
+    }
+
+    public synchronized boolean isConsumersPaused() {
+        return !backpressure.isEmpty();
+    }
+
+    public void pauseConsumersForOutboxBacklog(long backlog) {
+        applyBackpressure(Backpressure.OUTBOX_BACKLOG, "notification outbox has a backlog of %d messages".formatted(backlog));
+    }
+
+    public void resumeConsumersAfterOutboxBacklog() {
+        releaseBackpressure(Backpressure.OUTBOX_BACKLOG);
+    }
+
+    private void onCompleted(Timer.Sample sample, Throwable error) {
+        inFlight.release();
+        var cause = error instanceof CompletionException ? error.getCause() : error;
+        sample.stop(meterRegistry.timer(DELIVERY_TIMER, ObservationConfiguration.OUTCOME_KEY, ObservationConfiguration.outcomeOf(cause)));
+        if (cause == null) {
+            if (inFlight.availablePermits() >= resumeThreshold) {
+                releaseBackpressure(Backpressure.PRODUCER);
+            }
+            return;
+        }
+
+        meterRegistry.counter(DELIVERY_FAILURES, EXCEPTION_KEY, rootCause(cause).getClass().getSimpleName()).increment();
+        if (isProducerBufferFull(cause)) {
+            applyBackpressure(Backpressure.PRODUCER, "Kafka producer buffer is full");
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Timed out waiting for in-flight notification messages to be acknowledged");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to publish notification message", e);
+        }
+    }
+
+    // The listeners stay paused until every source of backpressure has been released
+    private synchronized void applyBackpressure(Backpressure source, String reason) {
+        var paused = !backpressure.isEmpty();
+        if (backpressure.add(source) && !paused) {
+            log.warn("Pausing product listeners, {}", reason);
+            kafkaListenerEndpointRegistry.getListenerContainers().stream()
+                    .filter(MessageListenerContainer::isRunning)
+                    .forEach(MessageListenerContainer::pause);
+        }
+    }
+
+    private synchronized void releaseBackpressure(Backpressure source) {
+        if (backpressure.remove(source) && backpressure.isEmpty()) {
+            log.info("Resuming product listeners, notification messages are being relayed again");
+            kafkaListenerEndpointRegistry.getListenerContainers().stream()
+                    .filter(MessageListenerContainer::isPauseRequested)
+                    .forEach(MessageListenerContainer::resume);
+        }
+    }
+
+    private static boolean isProducerBufferFull(Throwable error) {
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BufferExhaustedException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        var cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private enum Backpressure {
+        PRODUCER,
+        OUTBOX_BACKLOG
+    }
+}
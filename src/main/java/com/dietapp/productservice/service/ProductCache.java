@@ -0,0 +1,55 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.ProductDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCache {
+    public static final String PRODUCTS_BY_ID = "productsById";
+    public static final String PRODUCTS_BY_NAME = "productsByName";
+
+    private final CacheManager cacheManager;
+
+    public Optional<ProductDto> getById(UUID id) {
+        var productsById = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_BY_ID));
+        return Optional.ofNullable(productsById.get(id, ProductDto.class));
+    }
+
+    public void evict(UUID id, String... names) {
+        evictEntries(id, names);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Entries reloaded by concurrent readers before the commit would still hold the old state
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictEntries(id, names);
+                }
+            });
+        }
+    }
+
+    private void evictEntries(UUID id, String... names) {
+        log.debug("Evicting product cache entries (id: {}, names: {})", id, names);
+        var productsById = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_BY_ID));
+        var productsByName = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_BY_NAME));
+        if (id != null) {
+            productsById.evict(id);
+        }
+        for (var name : names) {
+            if (name != null) {
+                productsByName.evict(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.configuration.KafkaConfiguration;
+import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.BulkProductMessage;
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductKafkaBatchMessageHandler {
+
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+    private final ProductKafkaMessageHandler productKafkaMessageHandler;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageDeduplicator messageDeduplicator;
+
+    @KafkaListener(id = "ProductServiceBatch", topics = "${kafka.topic-name}", groupId = "${kafka.group-id}",
+            containerFactory = KafkaConfiguration.BATCH_LISTENER_CONTAINER_FACTORY,
+            autoStartup = "#{'${kafka.listener.mode}' == 'batch'}")
+    public void handleBatch(List<ConsumerRecord<String, Object>> records) {
+        log.debug("Incoming Kafka batch of {} messages", records.size());
+        var messageKeys = HashSet.<String>newHashSet(records.size());
+        var segment = new LinkedHashMap<String, ConsumerRecord<String, Object>>();
+        for (var record : records) {
+            if (!isSupported(record.value())) {
+                log.warn("Unsupported Kafka message skipped (offset: {}, partition: {})", record.offset(), record.partition());
+                continue;
+            }
+            var messageKey = messageDeduplicator.keyOf(record);
+            if (!messageKeys.add(messageKey) || messageDeduplicator.isDuplicate(messageKey)) {
+                log.info("Duplicate Kafka message skipped (key: {})", messageKey);
+                continue;
+            }
+            if (record.value() instanceof PatchProductMessage message) {
+                // Patches depend on the current product state, so preceding operations have to be applied first
+                processSegment(segment);
+                segment.clear();
+                productKafkaMessageHandler.patchProduct(message, messageKey);
+            } else {
+                segment.put(messageKey, record);
+            }
+        }
+        processSegment(segment);
+    }
+
+    private void processSegment(Map<String, ConsumerRecord<String, Object>> segment) {
+        if (segment.isEmpty()) {
+            return;
+        }
+        var operations = new ArrayList<ProductOperation>(segment.size());
+        for (var record : segment.values()) {
+            switch (record.value()) {
+                case CreateProductMessage message -> operations.add(ProductOperation.create(productMapper.toDto(message)));
+                case UpdateProductMessage message -> operations.add(ProductOperation.update(message.id(), productMapper.toDto(message)));
+                case DeleteProductMessage message -> operations.add(ProductOperation.delete(message.id()));
+                case BulkProductMessage message -> operations.addAll(productMapper.toOperations(message));
+                default -> throw new IllegalArgumentException("Unsupported message type " + record.value().getClass());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productService.processBatch(operations).forEach(productKafkaMessageHandler::sendNotification);
+                segment.keySet().forEach(messageDeduplicator::markProcessed);
+            });
+        } catch (Exception e) {
+            log.warn("Batch of {} product operations failed, processing messages one by one", operations.size(), e);
+            segment.forEach(this::handleMessage);
+        }
+    }
+
+    private void handleMessage(String messageKey, ConsumerRecord<String, Object> record) {
+        switch (record.value()) {
+            case CreateProductMessage message -> productKafkaMessageHandler.createProduct(message, messageKey);
+            case UpdateProductMessage message -> productKafkaMessageHandler.updateProduct(message, messageKey);
+            case DeleteProductMessage message -> productKafkaMessageHandler.deleteProduct(message, messageKey);
+            case BulkProductMessage message -> productKafkaMessageHandler.bulkProducts(message, messageKey);
+            default -> throw new IllegalArgumentException("Unsupported message type " + record.value().getClass());
+        }
+    }
+
+    private static boolean isSupported(Object message) {
+        return message instanceof CreateProductMessage
+                || message instanceof UpdateProductMessage
+                || message instanceof DeleteProductMessage
+                || message instanceof BulkProductMessage
+                || message instanceof PatchProductMessage;
+    }
+}
@@ -1,86 +1,224 @@
 package com.dietapp.productservice.service;
 
+import com.dietapp.productservice.configuration.ObservationConfiguration;
 import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.BulkProductMessage;
 import com.dietapp.productservice.model.CreateProductMessage;
 import com.dietapp.productservice.model.DeleteProductMessage;
 import com.dietapp.productservice.model.NotificationCode;
 import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductOperationResult;
 import com.dietapp.productservice.model.UpdateProductMessage;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.adapter.ConsumerRecordMetadata;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-@KafkaListener(id = "ProductService", topics = "${kafka.topic-name}", groupId = "${kafka.group-id}")
+@KafkaListener(id = "ProductService", topics = "${kafka.topic-name}", groupId = "${kafka.group-id}",
+        autoStartup = "#{'${kafka.listener.mode}' == 'record'}")
 public class ProductKafkaMessageHandler {
     private static final String NOTIFICATION_PRODUCT_PROPERTY_KEY = "product";
+    private static final String MESSAGE_OBSERVATION = "product.kafka.message";
 
     private final ProductService productService;
     private final ProductMapper productMapper;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final NotificationOutbox notificationOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageDeduplicator messageDeduplicator;
+    private final ObservationRegistry observationRegistry;
 
     @Value("${kafka.notification-topic-name}")
     private String notificationTopic;
 
     @KafkaHandler
-    public void createProduct(@Payload CreateProductMessage message) {
-        log.debug("Incoming Kafka Message: {}", message);
-        try {
-            var createdProduct = productService.create(productMapper.toDto(message));
-            kafkaTemplate.send(notificationTopic, NotificationMessage.builder()
-                    .message("New product was created (%s)".formatted(createdProduct.name()))
-                    .code(NotificationCode.PRODUCT_CREATED)
-                    .properties(Map.of(NOTIFICATION_PRODUCT_PROPERTY_KEY, createdProduct))
-                    .build());
-        } catch (Exception e) {
-            log.error("Product creation error", e);
-            kafkaTemplate.send(notificationTopic, createErrorNotification(e,
-                    NotificationCode.PRODUCT_CREATED_ERROR));
-        }
+    public void createProduct(@Payload CreateProductMessage message,
+                              @Header(name = MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) byte[] idempotencyKey,
+                              ConsumerRecordMetadata metadata) {
+        createProduct(message, keyOf(idempotencyKey, metadata));
     }
 
     @KafkaHandler
-    public void updateProduct(@Payload UpdateProductMessage message) {
-        log.debug("Incoming Kafka Message: {}", message);
-        try {
-            var updatedProduct = productService.update(message.id(), productMapper.toDto(message));
-            kafkaTemplate.send(notificationTopic, NotificationMessage.builder()
-                    .message("Product was updated (%s)".formatted(updatedProduct.name()))
-                    .code(NotificationCode.PRODUCT_UPDATED)
-                    .properties(Map.of(NOTIFICATION_PRODUCT_PROPERTY_KEY, updatedProduct))
-                    .build());
-        } catch (Exception e) {
-            log.error("Product update error", e);
-            kafkaTemplate.send(notificationTopic, createErrorNotification(e,
-                    NotificationCode.PRODUCT_UPDATED_ERROR));
-        }
+    public void updateProduct(@Payload UpdateProductMessage message,
+                              @Header(name = MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) byte[] idempotencyKey,
+                              ConsumerRecordMetadata metadata) {
+        updateProduct(message, keyOf(idempotencyKey, metadata));
+    }
+
+    @KafkaHandler
+    public void deleteProduct(@Payload DeleteProductMessage message,
+                              @Header(name = MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) byte[] idempotencyKey,
+                              ConsumerRecordMetadata metadata) {
+        deleteProduct(message, keyOf(idempotencyKey, metadata));
+    }
+
+    @KafkaHandler
+    public void patchProduct(@Payload PatchProductMessage message,
+                             @Header(name = MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) byte[] idempotencyKey,
+                             ConsumerRecordMetadata metadata) {
+        patchProduct(message, keyOf(idempotencyKey, metadata));
     }
 
     @KafkaHandler
-    public void deleteProduct(@Payload DeleteProductMessage message) {
+    public void bulkProducts(@Payload BulkProductMessage message,
+                             @Header(name = MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) byte[] idempotencyKey,
+                             ConsumerRecordMetadata metadata) {
+        bulkProducts(message, keyOf(idempotencyKey, metadata));
+    }
+
+    void createProduct(CreateProductMessage message, String messageKey) {
+        log.debug("Incoming Kafka Message: {}", message);
+        process("create", messageKey,
+                () -> sendCreatedNotification(productService.create(productMapper.toDto(message))),
+                e -> {
+                    log.error("Product creation error", e);
+                    sendErrorNotification(e, NotificationCode.PRODUCT_CREATED_ERROR);
+                });
+    }
+
+    void updateProduct(UpdateProductMessage message, String messageKey) {
+        log.debug("Incoming Kafka Message: {}", message);
+        process("update", messageKey,
+                () -> sendUpdatedNotification(productService.update(message.id(), productMapper.toDto(message))),
+                e -> {
+                    log.error("Product update error", e);
+                    sendErrorNotification(e, NotificationCode.PRODUCT_UPDATED_ERROR);
+                });
+    }
+
+    void deleteProduct(DeleteProductMessage message, String messageKey) {
+        log.debug("Incoming Kafka Message: {}", message);
+        process("delete", messageKey,
+                () -> sendRemovedNotification(productService.delete(message.id())),
+                e -> {
+                    log.error("Product delete error", e);
+                    sendErrorNotification(e, NotificationCode.PRODUCT_REMOVED_ERROR);
+                });
+    }
+
+    void patchProduct(PatchProductMessage message, String messageKey) {
         log.debug("Incoming Kafka Message: {}", message);
-        try {
-            var removedProductName = productService.delete(message.id());
-            kafkaTemplate.send(notificationTopic, NotificationMessage.builder()
-                    .message("Product was removed (%s)".formatted(removedProductName))
-                    .code(NotificationCode.PRODUCT_REMOVED)
-                    .build());
-        } catch (Exception e) {
-            log.error("Product delete error", e);
-            kafkaTemplate.send(notificationTopic, createErrorNotification(e,
-                    NotificationCode.PRODUCT_REMOVED_ERROR));
+        process("patch", messageKey,
+                () -> productService.patch(message.id(), productMapper.toPatchDto(message), null)
+                        .ifPresent(this::sendUpdatedNotification),
+                e -> {
+                    log.error("Product patch error", e);
+                    sendErrorNotification(e, NotificationCode.PRODUCT_UPDATED_ERROR);
+                });
+    }
+
+    void bulkProducts(BulkProductMessage message, String messageKey) {
+        log.debug("Incoming Kafka Message with {} created and {} updated products",
+                message.create() == null ? 0 : message.create().size(),
+                message.update() == null ? 0 : message.update().size());
+        var operations = productMapper.toOperations(message);
+        process("bulk", messageKey,
+                () -> productService.processBatch(operations).forEach(this::sendNotification),
+                e -> {
+                    log.error("Bulk product processing error", e);
+                    operations.forEach(operation -> sendNotification(ProductOperationResult.failure(operation, e)));
+                });
+    }
+
+    void sendNotification(ProductOperationResult result) {
+        switch (result.operation().type()) {
+            case CREATE -> {
+                if (result.isSuccessful()) {
+                    sendCreatedNotification(result.product());
+                } else {
+                    sendErrorNotification(result.error(), NotificationCode.PRODUCT_CREATED_ERROR);
+                }
+            }
+            case UPDATE -> {
+                if (result.isSuccessful()) {
+                    sendUpdatedNotification(result.product());
+                } else {
+                    sendErrorNotification(result.error(), NotificationCode.PRODUCT_UPDATED_ERROR);
+                }
+            }
+            case DELETE -> {
+                if (result.isSuccessful()) {
+                    sendRemovedNotification(result.product().name());
+                } else {
+                    sendErrorNotification(result.error(), NotificationCode.PRODUCT_REMOVED_ERROR);
+                }
+            }
         }
     }
 
+    private void process(String operation, String messageKey, Runnable action, Consumer<Exception> errorHandler) {
+        var observation = Observation.createNotStarted(MESSAGE_OBSERVATION, observationRegistry)
+                .lowCardinalityKeyValue(ObservationConfiguration.OPERATION_KEY, operation)
+                .start();
+        try (var scope = observation.openScope()) {
+            if (messageDeduplicator.isDuplicate(messageKey)) {
+                log.info("Duplicate Kafka message skipped (key: {})", messageKey);
+                observation.lowCardinalityKeyValue(ObservationConfiguration.OUTCOME_KEY, "duplicate");
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    action.run();
+                    messageDeduplicator.markProcessed(messageKey);
+                });
+            } catch (Exception e) {
+                observation.error(e);
+                transactionTemplate.executeWithoutResult(status -> {
+                    errorHandler.accept(e);
+                    messageDeduplicator.markProcessed(messageKey);
+                });
+            }
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private String keyOf(byte[] idempotencyKey, ConsumerRecordMetadata metadata) {
+        return messageDeduplicator.keyOf(idempotencyKey, metadata.topic(), metadata.partition(), metadata.offset());
+    }
+
+    private void sendCreatedNotification(ProductDto createdProduct) {
+        notificationOutbox.add(notificationTopic, NotificationMessage.builder()
+                .message("New product was created (%s)".formatted(createdProduct.name()))
+                .code(NotificationCode.PRODUCT_CREATED)
+                .properties(Map.of(NOTIFICATION_PRODUCT_PROPERTY_KEY, createdProduct))
+                .build());
+    }
+
+    private void sendUpdatedNotification(ProductDto updatedProduct) {
+        notificationOutbox.add(notificationTopic, NotificationMessage.builder()
+                .message("Product was updated (%s)".formatted(updatedProduct.name()))
+                .code(NotificationCode.PRODUCT_UPDATED)
+                .properties(Map.of(NOTIFICATION_PRODUCT_PROPERTY_KEY, updatedProduct))
+                .build());
+    }
+
+    private void sendRemovedNotification(String removedProductName) {
+        notificationOutbox.add(notificationTopic, NotificationMessage.builder()
+                .message("Product was removed (%s)".formatted(removedProductName))
+                .code(NotificationCode.PRODUCT_REMOVED)
+                .build());
+    }
+
+    private void sendErrorNotification(Exception e, NotificationCode code) {
+        notificationOutbox.add(notificationTopic, createErrorNotification(e, code));
+    }
+
     private NotificationMessage createErrorNotification(Exception e, NotificationCode code) {
         return NotificationMessage.builder()
                 .code(code)
@@ -0,0 +1,147 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.configuration.KafkaConfiguration;
+import com.dietapp.productservice.model.BulkProductMessage;
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Component
+public class ProductKafkaParallelMessageHandler {
+    private static final String IN_FLIGHT_GAUGE = "product.kafka.parallel.in.flight";
+
+    private final ProductKafkaMessageHandler productKafkaMessageHandler;
+    private final MessageDeduplicator messageDeduplicator;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final Semaphore inFlight;
+
+    public ProductKafkaParallelMessageHandler(ProductKafkaMessageHandler productKafkaMessageHandler,
+                                              MessageDeduplicator messageDeduplicator,
+                                              @Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor,
+                                              @Value("${kafka.parallel.max-in-flight}") int maxInFlight,
+                                              MeterRegistry meterRegistry) {
+        this.productKafkaMessageHandler = productKafkaMessageHandler;
+        this.messageDeduplicator = messageDeduplicator;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Product workers currently processing Kafka messages")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = "ProductServiceParallel", topics = "${kafka.topic-name}", groupId = "${kafka.group-id}",
+            containerFactory = KafkaConfiguration.BATCH_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${kafka.parallel.concurrency}",
+            autoStartup = "#{'${kafka.listener.mode}' == 'parallel'}")
+    public void handleBatch(List<ConsumerRecord<String, Object>> records) {
+        log.debug("Incoming Kafka batch of {} messages", records.size());
+        var messagesByProduct = new LinkedHashMap<Object, List<ConsumerRecord<String, Object>>>();
+        for (var record : records) {
+            switch (record.value()) {
+                // The id of a created product is only known once the create is processed, so no other message
+                // in the batch can refer to it and the create gets a lane of its own
+                case CreateProductMessage ignored -> addMessage(messagesByProduct, record, record);
+                case UpdateProductMessage message -> addMessage(messagesByProduct, message.id(), record);
+                case DeleteProductMessage message -> addMessage(messagesByProduct, message.id(), record);
+                case PatchProductMessage message -> addMessage(messagesByProduct, message.id(), record);
+                case BulkProductMessage message -> {
+                    processInParallel(messagesByProduct);
+                    messagesByProduct.clear();
+                    productKafkaMessageHandler.bulkProducts(message, messageDeduplicator.keyOf(record));
+                }
+                case null, default ->
+                        log.warn("Unsupported Kafka message skipped (offset: {}, partition: {})", record.offset(), record.partition());
+            }
+        }
+        processInParallel(messagesByProduct);
+    }
+
+    private void addMessage(Map<Object, List<ConsumerRecord<String, Object>>> messagesByProduct, Object productKey,
+                            ConsumerRecord<String, Object> record) {
+        messagesByProduct.computeIfAbsent(productKey, key -> new ArrayList<>()).add(record);
+    }
+
+    private void processInParallel(Map<Object, List<ConsumerRecord<String, Object>>> messagesByProduct) {
+        var tasks = new ArrayList<Future<?>>(messagesByProduct.size());
+        for (var messages : messagesByProduct.values()) {
+            acquirePermit();
+            try {
+                tasks.add(applicationTaskExecutor.submit(() -> {
+                    try {
+                        messages.forEach(this::handleMessage);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        IllegalStateException failure = null;
+        for (var task : tasks) {
+            try {
+                awaitCompletion(task);
+            } catch (IllegalStateException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void handleMessage(ConsumerRecord<String, Object> record) {
+        var messageKey = messageDeduplicator.keyOf(record);
+        switch (record.value()) {
+            case CreateProductMessage message -> productKafkaMessageHandler.createProduct(message, messageKey);
+            case UpdateProductMessage message -> productKafkaMessageHandler.updateProduct(message, messageKey);
+            case DeleteProductMessage message -> productKafkaMessageHandler.deleteProduct(message, messageKey);
+            case PatchProductMessage message -> productKafkaMessageHandler.patchProduct(message, messageKey);
+            default -> throw new IllegalArgumentException("Unsupported message type " + record.value().getClass());
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free product worker", e);
+        }
+    }
+
+    private void awaitCompletion(Future<?> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for product workers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Product worker failed", e.getCause());
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package com.dietapp.productservice.service;
 
+import com.dietapp.productservice.model.CursorPage;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductFilterCriteria;
+import com.dietapp.productservice.model.ProductLookupResult;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.ProductOperationResult;
+import com.dietapp.productservice.model.ProductPatchDto;
+import com.dietapp.productservice.model.ProductSearchCriteria;
+import com.dietapp.productservice.model.ProductSummaryDto;
+import com.dietapp.productservice.model.ProductVersionDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductService {
     Page<ProductDto> getAll(Pageable pageable);
 
+    Page<ProductSummaryDto> getAllSummaries(Pageable pageable);
+
+    CursorPage<ProductDto> scroll(String cursor, int size);
+
+    CursorPage<ProductSummaryDto> scrollSummaries(String cursor, int size);
+
+    void export(Instant updatedSince, Consumer<ProductDto> consumer);
+
     ProductDto getById(UUID id);
 
     ProductDto getByName(String name);
 
+    ProductSummaryDto getSummaryByName(String name);
+
+    ProductLookupResult getByIds(List<UUID> ids);
+
+    ProductVersionDto getVersion(UUID id);
+
+    List<ProductSummaryDto> search(ProductSearchCriteria criteria);
+
+    Page<ProductSummaryDto> filter(ProductFilterCriteria criteria, Pageable pageable);
+
     ProductDto create(ProductDto productDto);
 
     ProductDto update(UUID id, ProductDto productDto);
 
+    Optional<ProductDto> patch(UUID id, ProductPatchDto productPatchDto, Integer expectedVersion);
+
     String delete(UUID id);
+
+    List<ProductOperationResult> processBatch(List<ProductOperation> operations);
 }
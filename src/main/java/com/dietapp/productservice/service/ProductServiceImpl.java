@@ -1,56 +1,274 @@
 package com.dietapp.productservice.service;
 
+import com.dietapp.productservice.configuration.ReadFromPrimary;
+import com.dietapp.productservice.exception.InvalidRequestException;
 import com.dietapp.productservice.exception.ProductNotFoundException;
+import com.dietapp.productservice.exception.ProductVersionMismatchException;
 import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CursorPage;
 import com.dietapp.productservice.model.CustomProperty;
 import com.dietapp.productservice.model.Product;
+import com.dietapp.productservice.model.ProductCursor;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductFilterCriteria;
+import com.dietapp.productservice.model.ProductLookupResult;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.ProductOperationResult;
+import com.dietapp.productservice.model.ProductPatchDto;
+import com.dietapp.productservice.model.ProductPropertiesStorage;
+import com.dietapp.productservice.model.ProductScrollSummary;
+import com.dietapp.productservice.model.ProductSearchCriteria;
+import com.dietapp.productservice.model.ProductSummaryDto;
+import com.dietapp.productservice.model.ProductVersionDto;
 import com.dietapp.productservice.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Observed(name = "product.service")
 public class ProductServiceImpl implements ProductService {
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int BATCH_CHUNK_SIZE = 500;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_LOOKUP_SIZE = 500;
+    private static final int LOOKUP_CHUNK_SIZE = 100;
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductCache productCache;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.properties.storage}")
+    private ProductPropertiesStorage propertiesStorage = ProductPropertiesStorage.TABLE;
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public Page<ProductDto> getAll(Pageable pageable) {
         log.info("Get all products (Page number: {}, Page size: {})", pageable.getPageNumber(), pageable.getPageSize());
-        return productRepository.findAll(pageable)
-                .map(productMapper::toDto);
+        var products = productRepository.findAll(pageable);
+        fetchProperties(products.getContent());
+        return products.map(this::toDto);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryDto> getAllSummaries(Pageable pageable) {
+        log.info("Get all product summaries (Page number: {}, Page size: {})", pageable.getPageNumber(), pageable.getPageSize());
+        return productRepository.findAllSummaries(pageable)
+                .map(productMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> scroll(String cursor, int size) {
+        log.info("Scroll products (Cursor: {}, Page size: {})", cursor, size);
+        var limit = toScrollLimit(size);
+        var products = cursor == null
+                ? productRepository.findFirstPage(limit)
+                : findPageAfter(ProductCursor.decode(cursor), limit);
+
+        var hasNext = products.size() > size;
+        var content = hasNext ? products.subList(0, size) : products;
+        var nextCursor = hasNext ? ProductCursor.of(content.get(size - 1)).encode() : null;
+        fetchProperties(content);
+        return new CursorPage<>(content.stream()
+                .map(this::toDto)
+                .toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummaryDto> scrollSummaries(String cursor, int size) {
+        log.info("Scroll product summaries (Cursor: {}, Page size: {})", cursor, size);
+        var limit = toScrollLimit(size);
+        var products = cursor == null
+                ? productRepository.findFirstSummaryPage(limit)
+                : findSummaryPageAfter(ProductCursor.decode(cursor), limit);
+
+        var hasNext = products.size() > size;
+        var content = hasNext ? products.subList(0, size) : products;
+        var nextCursor = hasNext ? ProductCursor.of(content.get(size - 1)).encode() : null;
+        return new CursorPage<>(content.stream()
+                .map(productMapper::toSummaryDto)
+                .toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Instant updatedSince, Consumer<ProductDto> consumer) {
+        log.info("Export products (Updated since: {})", updatedSince);
+        try (var products = updatedSince == null
+                ? productRepository.streamAll()
+                : productRepository.streamAllUpdatedSince(updatedSince)) {
+            var chunk = new ArrayList<Product>(EXPORT_CHUNK_SIZE);
+            products.forEach(product -> {
+                chunk.add(product);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    exportChunk(chunk, consumer);
+                }
+            });
+            exportChunk(chunk, consumer);
+        }
+    }
+
+    // The cache is only evicted on writes, a product read from a lagging replica would stay stale for the whole time to live
+    @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ProductCache.PRODUCTS_BY_ID, key = "#id", sync = true)
     public ProductDto getById(UUID id) {
         log.info("Get product by id {}", id);
-        var product = productRepository.findById(id);
-        return productMapper.toDto(product.orElseThrow(() ->
+        var product = findById(id);
+        return toDto(product.orElseThrow(() ->
                 new ProductNotFoundException("Product not found by id %s".formatted(id))));
     }
 
     @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ProductCache.PRODUCTS_BY_NAME, key = "#name", sync = true)
     public ProductDto getByName(String name) {
         log.info("Get product by name {}", name);
-        var product = productRepository.findByName(name);
-        return productMapper.toDto(product.orElseThrow(() ->
+        var product = isDocumentStorage() ? productRepository.findWithoutPropertiesByName(name) : productRepository.findByName(name);
+        return toDto(product.orElseThrow(() ->
                 new ProductNotFoundException("Product not found by name %s".formatted(name))));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSummaryDto getSummaryByName(String name) {
+        log.info("Get product summary by name {}", name);
+        var productSummary = productRepository.findSummaryByName(name);
+        return productMapper.toSummaryDto(productSummary.orElseThrow(() ->
+                new ProductNotFoundException("Product not found by name %s".formatted(name))));
+    }
+
+    // Combined with cache entries, which are read from the primary
+    @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public ProductLookupResult getByIds(List<UUID> ids) {
+        log.info("Get {} products by ids", ids.size());
+        if (ids.size() > MAX_LOOKUP_SIZE) {
+            throw new InvalidRequestException("Lookup must not contain more than %d ids".formatted(MAX_LOOKUP_SIZE));
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidRequestException("Lookup must not contain null ids");
+        }
+        var requestedIds = new LinkedHashSet<>(ids);
+        var productsById = HashMap.<UUID, ProductDto>newHashMap(requestedIds.size());
+        var uncachedIds = new ArrayList<UUID>();
+        for (var id : requestedIds) {
+            productCache.getById(id).ifPresentOrElse(product -> productsById.put(id, product), () -> uncachedIds.add(id));
+        }
+        for (var from = 0; from < uncachedIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            var chunk = uncachedIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, uncachedIds.size()));
+            findAllByIdIn(chunk)
+                    .forEach(product -> productsById.put(product.getId(), toDto(product)));
+        }
+
+        var products = new ArrayList<ProductDto>(productsById.size());
+        var missingIds = new ArrayList<UUID>();
+        for (var id : requestedIds) {
+            var product = productsById.get(id);
+            if (product == null) {
+                missingIds.add(id);
+            } else {
+                products.add(product);
+            }
+        }
+        log.info("Found {} products, {} from cache, {} missing", products.size(),
+                requestedIds.size() - uncachedIds.size(), missingIds.size());
+        return new ProductLookupResult(products, missingIds);
+    }
+
+    // The versions are compared with If-Match on writes to the primary
+    @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public ProductVersionDto getVersion(UUID id) {
+        log.debug("Get product version by id {}", id);
+        return productCache.getById(id)
+                .map(productMapper::toVersionDto)
+                .or(() -> productRepository.findVersionById(id).map(productMapper::toVersionDto))
+                .orElseThrow(() -> new ProductNotFoundException("Product not found by id %s".formatted(id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummaryDto> search(ProductSearchCriteria criteria) {
+        log.info("Search products (Query: {}, Mode: {}, Type: {}, Kcal: {}-{}, Limit: {})", criteria.query(),
+                criteria.mode(), criteria.type(), criteria.kcalMin(), criteria.kcalMax(), criteria.limit());
+        if (criteria.limit() < 1) {
+            throw new InvalidRequestException("Search limit must not be less than one");
+        }
+        var anyType = criteria.type() == null;
+        var type = anyType ? "" : criteria.type().name();
+        var kcalMin = criteria.kcalMin() == null ? 0 : criteria.kcalMin();
+        var kcalMax = criteria.kcalMax() == null ? Double.MAX_VALUE : criteria.kcalMax();
+        var limit = Math.min(criteria.limit(), MAX_SEARCH_LIMIT);
+        var products = switch (criteria.mode()) {
+            case PREFIX -> productRepository.searchByNamePrefix(escapeLikePattern(criteria.query()) + "%",
+                    anyType, type, kcalMin, kcalMax, limit);
+            case FUZZY -> productRepository.searchByNameSimilarity(criteria.query(),
+                    anyType, type, kcalMin, kcalMax, limit);
+        };
+        return products.stream()
+                .map(productMapper::toSummaryDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryDto> filter(ProductFilterCriteria criteria, Pageable pageable) {
+        log.info("Filter products (Properties: {}, Type: {}, Kcal: {}-{}, Page number: {}, Page size: {})", criteria.properties(),
+                criteria.type(), criteria.kcalMin(), criteria.kcalMax(), pageable.getPageNumber(), pageable.getPageSize());
+        var properties = criteria.properties() == null ? Map.<String, String>of() : criteria.properties();
+        if (properties.isEmpty() && criteria.type() == null && criteria.kcalMin() == null && criteria.kcalMax() == null) {
+            throw new InvalidRequestException("Filter must contain at least one condition");
+        }
+        var anyType = criteria.type() == null;
+        var type = anyType ? "" : criteria.type().name();
+        var kcalMin = criteria.kcalMin() == null ? 0 : criteria.kcalMin();
+        var kcalMax = criteria.kcalMax() == null ? Double.MAX_VALUE : criteria.kcalMax();
+        var page = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_SEARCH_LIMIT));
+        return productRepository.filter(toPropertiesDocument(properties), anyType, type, kcalMin, kcalMax, page)
+                .map(productMapper::toSummaryDto);
+    }
+
     @Override
     @Transactional
     public ProductDto create(ProductDto productDto) {
@@ -58,20 +276,26 @@ public class ProductServiceImpl implements ProductService {
                 productDto.name(), productDto.kcal(), productDto.type());
         var product = productMapper.toEntity(productDto);
         product.setVersion(0);
+        if (isDocumentStorage()) {
+            validate(product);
+            product.movePropertiesToDocument();
+        }
 
         var savedProduct = productRepository.saveAndFlush(product);
+        productCache.evict(null, savedProduct.getName());
         log.info("Product {} was saved (id: {})", savedProduct.getName(), savedProduct.getId());
 
-        return productMapper.toDto(savedProduct);
+        return toDto(savedProduct);
     }
 
     @Override
     @Transactional
     public String delete(UUID id) {
         log.info("Removing product (id: {})", id);
-        var product = productRepository.findById(id).orElseThrow(() ->
+        var product = findById(id).orElseThrow(() ->
                 new ProductNotFoundException("Product not found by id %s".formatted(id)));
         productRepository.delete(product);
+        productCache.evict(id, product.getName());
         log.info("Product {} was removed (id: {})", product.getName(), id);
         return product.getName();
     }
@@ -80,28 +304,305 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     public ProductDto update(UUID id, ProductDto productDto) {
         log.info("Updating product (name: {}, id: {})", productDto.name(), id);
-        var productToUpdate = productRepository.findById(id)
+        var productToUpdate = findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found by id %s".formatted(id)));
 
-        productToUpdate.setName(productDto.name());
-        productToUpdate.setKcal(productDto.kcal());
-        productToUpdate.setType(productDto.type());
-        productToUpdate.getProperties().clear();
-        productToUpdate.getProperties().addAll(mapToCustomProperties(productDto.properties(), productToUpdate));
+        productCache.evict(id, productToUpdate.getName(), productDto.name());
+        applyChanges(productToUpdate, productDto);
 
         var updatedProduct = productRepository.saveAndFlush(productToUpdate);
         log.info("Product {} was updated (id: {})", updatedProduct.getName(), updatedProduct.getId());
 
-        return productMapper.toDto(updatedProduct);
+        return toDto(updatedProduct);
+    }
+
+    @Override
+    @Transactional
+    public Optional<ProductDto> patch(UUID id, ProductPatchDto productPatchDto, Integer expectedVersion) {
+        log.info("Patching product (id: {})", id);
+        var productToPatch = findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found by id %s".formatted(id)));
+        if (expectedVersion != null && expectedVersion != productToPatch.getVersion()) {
+            throw new ProductVersionMismatchException("Product %s has version %d, expected %d"
+                    .formatted(id, productToPatch.getVersion(), expectedVersion));
+        }
+
+        var previousName = productToPatch.getName();
+        if (!applyValidPatch(productToPatch, productPatchDto)) {
+            log.info("Product {} was not modified by patch (id: {})", previousName, id);
+            return Optional.empty();
+        }
+        productCache.evict(id, previousName, productToPatch.getName());
+
+        var patchedProduct = productRepository.saveAndFlush(productToPatch);
+        log.info("Product {} was patched (id: {})", patchedProduct.getName(), patchedProduct.getId());
+
+        return Optional.of(toDto(patchedProduct));
+    }
+
+    @Override
+    @Transactional
+    public List<ProductOperationResult> processBatch(List<ProductOperation> operations) {
+        log.info("Processing batch of {} product operations", operations.size());
+        var results = new ArrayList<ProductOperationResult>(operations.size());
+        for (var from = 0; from < operations.size(); from += BATCH_CHUNK_SIZE) {
+            results.addAll(processChunk(operations.subList(from, Math.min(from + BATCH_CHUNK_SIZE, operations.size()))));
+        }
+        log.info("Batch of {} product operations was processed", operations.size());
+        return results;
+    }
+
+    private List<ProductOperationResult> processChunk(List<ProductOperation> operations) {
+        prefetchProducts(operations);
+        var results = new ArrayList<Supplier<ProductOperationResult>>(operations.size());
+        for (var operation : operations) {
+            try {
+                results.add(apply(operation));
+            } catch (ProductNotFoundException | ConstraintViolationException e) {
+                log.warn("Product operation {} skipped in batch: {}", operation.type(), e.getMessage());
+                results.add(() -> ProductOperationResult.failure(operation, e));
+            }
+        }
+
+        productRepository.flush();
+        var chunkResults = results.stream()
+                .map(Supplier::get)
+                .toList();
+        entityManager.clear();
+        return chunkResults;
+    }
+
+    private void prefetchProducts(List<ProductOperation> operations) {
+        var ids = operations.stream()
+                .map(ProductOperation::id)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!ids.isEmpty()) {
+            // Loads the updated and removed products into the persistence context, so findById does not hit the database
+            findAllByIdIn(ids);
+        }
+    }
+
+    private void exportChunk(List<Product> chunk, Consumer<ProductDto> consumer) {
+        fetchProperties(chunk);
+        chunk.forEach(product -> consumer.accept(toDto(product)));
+        chunk.clear();
+        // Exported products are not needed anymore, so the persistence context does not grow with the catalogue
+        entityManager.clear();
+    }
+
+    private void fetchProperties(List<Product> products) {
+        if (products.isEmpty() || isDocumentStorage()) {
+            return;
+        }
+        // Initializes the lazy properties of the already loaded products with one query instead of one per product
+        productRepository.findAllWithPropertiesByIdIn(products.stream()
+                .map(Product::getId)
+                .toList());
+    }
+
+    private List<Product> findPageAfter(ProductCursor cursor, Limit limit) {
+        return productRepository.findPageAfter(cursor.createdDate(), cursor.id(), limit);
+    }
+
+    private List<ProductScrollSummary> findSummaryPageAfter(ProductCursor cursor, Limit limit) {
+        return productRepository.findSummaryPageAfter(cursor.createdDate(), cursor.id(), limit);
+    }
+
+    private static Limit toScrollLimit(int size) {
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must not be less than one");
+        }
+        return Limit.of(size + 1);
+    }
+
+    private Supplier<ProductOperationResult> apply(ProductOperation operation) {
+        return switch (operation.type()) {
+            case CREATE -> {
+                var product = productMapper.toEntity(operation.product());
+                validate(product);
+                product.setVersion(0);
+                if (isDocumentStorage()) {
+                    product.movePropertiesToDocument();
+                }
+                var savedProduct = productRepository.save(product);
+                productCache.evict(null, savedProduct.getName());
+                yield () -> ProductOperationResult.success(operation, toDto(savedProduct));
+            }
+            case UPDATE -> {
+                var product = findById(operation.id())
+                        .orElseThrow(() -> new ProductNotFoundException("Product not found by id %s".formatted(operation.id())));
+                validate(productMapper.toEntity(operation.product()));
+                productCache.evict(product.getId(), product.getName(), operation.product().name());
+                applyChanges(product, operation.product());
+                yield () -> ProductOperationResult.success(operation, toDto(product));
+            }
+            case DELETE -> {
+                var product = findById(operation.id())
+                        .orElseThrow(() -> new ProductNotFoundException("Product not found by id %s".formatted(operation.id())));
+                var removedProduct = toDto(product);
+                productRepository.delete(product);
+                productCache.evict(product.getId(), product.getName());
+                yield () -> ProductOperationResult.success(operation, removedProduct);
+            }
+        };
+    }
+
+    private void validate(Product product) {
+        var violations = new HashSet<ConstraintViolation<?>>(validator.validate(product));
+        if (product.getProperties() != null) {
+            product.getProperties().forEach(property -> violations.addAll(validator.validate(property)));
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
     }
 
-    private Set<CustomProperty> mapToCustomProperties(Map<String, String> properties, Product product) {
-        return properties.entrySet().stream()
-                .map(entry -> CustomProperty.builder()
+    private void applyChanges(Product product, ProductDto productDto) {
+        product.setName(productDto.name());
+        product.setKcal(productDto.kcal());
+        product.setType(productDto.type());
+        if (applyPropertyChanges(product, productDto.properties() == null ? Map.of() : productDto.properties(), true)) {
+            // Values changed in place do not dirty the product itself, so version and timestamp would stay behind
+            product.setLastUpdatedDate(Instant.now());
+        }
+    }
+
+    // Constraints would otherwise only be checked on flush, where a violation surfaces as a server error
+    private boolean applyValidPatch(Product product, ProductPatchDto productPatchDto) {
+        try {
+            var modified = applyPatch(product, productPatchDto);
+            if (modified) {
+                validate(product);
+            }
+            return modified;
+        } catch (ConstraintViolationException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+    }
+
+    private boolean applyPatch(Product product, ProductPatchDto productPatchDto) {
+        var modified = false;
+        if (productPatchDto.name() != null && !productPatchDto.name().equals(product.getName())) {
+            product.setName(productPatchDto.name());
+            modified = true;
+        }
+        if (productPatchDto.kcal() != null && productPatchDto.kcal() != product.getKcal()) {
+            product.setKcal(productPatchDto.kcal());
+            modified = true;
+        }
+        if (productPatchDto.type() != null && productPatchDto.type() != product.getType()) {
+            product.setType(productPatchDto.type());
+            modified = true;
+        }
+        if (productPatchDto.properties() != null && applyPropertyChanges(product, productPatchDto.properties(), false)) {
+            product.setLastUpdatedDate(Instant.now());
+            modified = true;
+        }
+        return modified;
+    }
+
+    private boolean applyPropertyChanges(Product product, Map<String, String> properties, boolean removeMissing) {
+        if (isDocumentStorage()) {
+            return applyDocumentChanges(product, properties, removeMissing);
+        }
+        if (product.getProperties() == null) {
+            product.setProperties(new HashSet<>());
+        }
+        var currentProperties = product.getProperties();
+        var changed = removeMissing && currentProperties.removeIf(property -> !properties.containsKey(property.getName()));
+        var currentPropertiesByName = HashMap.<String, CustomProperty>newHashMap(currentProperties.size());
+        currentProperties.forEach(property -> currentPropertiesByName.put(property.getName(), property));
+        for (var entry : properties.entrySet()) {
+            var property = currentPropertiesByName.get(entry.getKey());
+            if (entry.getValue() == null) {
+                changed |= property != null && currentProperties.remove(property);
+            } else if (property == null) {
+                currentProperties.add(CustomProperty.builder()
                         .name(entry.getKey())
                         .value(entry.getValue())
                         .product(product)
-                        .build())
-                .collect(Collectors.toSet());
+                        .build());
+                changed = true;
+            } else if (!Objects.equals(property.getValue(), entry.getValue())) {
+                property.setValue(entry.getValue());
+                changed = true;
+            }
+        }
+        if (changed) {
+            product.syncPropertiesDocument();
+        }
+        return changed;
+    }
+
+    private boolean applyDocumentChanges(Product product, Map<String, String> properties, boolean removeMissing) {
+        validateProperties(properties);
+        var currentDocument = product.getPropertiesDocument() == null ? Map.<String, String>of() : product.getPropertiesDocument();
+        var document = new HashMap<>(currentDocument);
+        if (removeMissing) {
+            document.keySet().retainAll(properties.keySet());
+        }
+        properties.forEach((name, value) -> {
+            if (value == null) {
+                document.remove(name);
+            } else {
+                document.put(name, value);
+            }
+        });
+        if (document.equals(currentDocument)) {
+            return false;
+        }
+        product.setPropertiesDocument(document);
+        return true;
+    }
+
+    // Document properties are not entities, so their constraints are not checked when the product is flushed
+    private void validateProperties(Map<String, String> properties) {
+        var violations = new HashSet<ConstraintViolation<?>>();
+        properties.forEach((name, value) -> {
+            if (value != null) {
+                var property = CustomProperty.builder()
+                        .name(name)
+                        .value(value)
+                        .build();
+                violations.addAll(validator.validateProperty(property, "name"));
+                violations.addAll(validator.validateProperty(property, "value"));
+            }
+        });
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private boolean isDocumentStorage() {
+        return propertiesStorage == ProductPropertiesStorage.DOCUMENT;
+    }
+
+    private Optional<Product> findById(UUID id) {
+        return isDocumentStorage()
+                ? Optional.ofNullable(entityManager.find(Product.class, id))
+                : productRepository.findById(id);
+    }
+
+    private List<Product> findAllByIdIn(Collection<UUID> ids) {
+        return isDocumentStorage() ? productRepository.findAllByIdIn(ids) : productRepository.findAllWithPropertiesByIdIn(ids);
+    }
+
+    private ProductDto toDto(Product product) {
+        return isDocumentStorage() ? productMapper.toDocumentDto(product) : productMapper.toDto(product);
+    }
+
+    private String toPropertiesDocument(Map<String, String> properties) {
+        try {
+            return objectMapper.writeValueAsString(properties);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Property filter cannot be serialized", e);
+        }
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 }
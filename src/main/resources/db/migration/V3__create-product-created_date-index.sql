@@ -0,0 +1 @@
+create index if not exists product_created_date_id_idx on product (created_date, id);
@@ -0,0 +1 @@
+create index if not exists custom_property_product_id_idx on custom_property (product_id);
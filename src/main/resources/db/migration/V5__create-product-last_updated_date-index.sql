@@ -0,0 +1 @@
+create index if not exists product_last_updated_date_idx on product (last_updated_date);
@@ -0,0 +1,4 @@
+create extension if not exists pg_trgm;
+
+create index if not exists product_name_prefix_idx on product (lower(name) text_pattern_ops);
+create index if not exists product_name_trigram_idx on product using gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,9 @@
+create sequence if not exists notification_outbox_seq increment by 50;
+
+create table if not exists notification_outbox
+(
+    id           bigint primary key,
+    topic        varchar(255) NOT NULL,
+    payload      text         NOT NULL,
+    created_date TIMESTAMP    NOT NULL
+);
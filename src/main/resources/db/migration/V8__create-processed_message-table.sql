@@ -0,0 +1,7 @@
+create table if not exists processed_message
+(
+    id             varchar(255) primary key,
+    processed_date TIMESTAMP NOT NULL
+);
+
+create index if not exists processed_message_processed_date_idx on processed_message (processed_date);
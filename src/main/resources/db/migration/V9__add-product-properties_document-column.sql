@@ -0,0 +1,10 @@
+alter table product add column if not exists properties_document jsonb not null default '{}'::jsonb;
+
+update product p
+set properties_document = properties.document
+from (select cp.product_id, jsonb_object_agg(cp.name, cp.value) as document
+      from custom_property cp
+      group by cp.product_id) properties
+where properties.product_id = p.id;
+
+create index if not exists product_properties_document_idx on product using gin (properties_document jsonb_path_ops);
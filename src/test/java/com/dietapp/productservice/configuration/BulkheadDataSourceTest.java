@@ -0,0 +1,70 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTest {
+    private static final int MAX_CONCURRENT = 2;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource targetDataSource;
+    private Connection targetConnection;
+    private BulkheadDataSource bulkheadDataSource;
+
+    @BeforeEach
+    void beforeEach() throws SQLException {
+        this.targetConnection = mock(Connection.class);
+        this.targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        this.bulkheadDataSource = new BulkheadDataSource(targetDataSource, "product-primary", MAX_CONCURRENT, 50, meterRegistry);
+    }
+
+    @Test
+    void shouldRejectCallersWhenAllPermitsAreHeld() throws SQLException {
+        bulkheadDataSource.getConnection();
+        bulkheadDataSource.getConnection();
+
+        assertThrows(DatabaseBusyException.class, () -> bulkheadDataSource.getConnection());
+        assertEquals(2, meterRegistry.get("product.datasource.bulkhead.in.use").gauge().value());
+        assertEquals(1, meterRegistry.get("product.datasource.bulkhead.rejected").counter().count());
+        assertEquals(3, meterRegistry.get("product.datasource.bulkhead.wait").timer().count());
+    }
+
+    @Test
+    void shouldReleasePermitOnceWhenConnectionIsClosed() throws SQLException {
+        var connection = bulkheadDataSource.getConnection();
+        bulkheadDataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        verify(targetConnection, times(2)).close();
+        assertEquals(1, meterRegistry.get("product.datasource.bulkhead.in.use").gauge().value());
+        bulkheadDataSource.getConnection();
+        assertThrows(DatabaseBusyException.class, () -> bulkheadDataSource.getConnection());
+    }
+
+    @Test
+    void shouldReleasePermitWhenTargetDataSourceFails() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThrows(SQLException.class, () -> bulkheadDataSource.getConnection());
+
+        assertEquals(0, meterRegistry.get("product.datasource.bulkhead.in.use").gauge().value());
+    }
+}
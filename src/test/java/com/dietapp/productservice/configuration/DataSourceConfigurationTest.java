@@ -0,0 +1,207 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataSourceConfigurationTest {
+    private String primaryUrl;
+    private String replicaUrl;
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeEach
+    void beforeEach() {
+        this.primaryUrl = "jdbc:h2:mem:primary-%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID());
+        this.replicaUrl = "jdbc:h2:mem:replica-%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID());
+        createDatabase(primaryUrl, ReplicaRoutingDataSource.PRIMARY);
+        createDatabase(replicaUrl, "replica-0");
+        // The replica stands in for a streaming Postgres standby that has replayed everything it received
+        var replica = jdbcTemplate(replicaUrl);
+        replica.execute("create alias pg_is_in_recovery as 'boolean isInRecovery() { return true; }'");
+        replica.execute("create alias pg_last_wal_receive_lsn as 'String receiveLsn() { return \"0/3000000\"; }'");
+        replica.execute("create alias pg_last_wal_replay_lsn as 'String replayLsn() { return \"0/3000000\"; }'");
+        replica.execute("create alias pg_last_xact_replay_timestamp as 'java.sql.Timestamp replayTimestamp() { return new java.sql.Timestamp(System.currentTimeMillis()); }'");
+        replica.execute("create table pg_stat_wal_receiver (status varchar(16))");
+        replica.execute("insert into pg_stat_wal_receiver values ('streaming')");
+
+        this.contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                        DataSourceTransactionManagerAutoConfiguration.class, TransactionAutoConfiguration.class))
+                .withUserConfiguration(DataSourceConfiguration.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.datasource.url=" + primaryUrl,
+                        "spring.datasource.hikari.maximum-pool-size=2",
+                        "spring.datasource.hikari.minimum-idle=0",
+                        "datasource.replicas[0].url=" + replicaUrl,
+                        "datasource.replica.max-lag-seconds=5",
+                        "datasource.bulkhead.acquire-timeout-ms=100");
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplicaAndReadWriteTransactionsToPrimary() {
+        contextRunner.run(context -> {
+            context.getBean(ReplicaRoutingDataSource.class).checkReplicas();
+
+            assertEquals("replica-0", inTransaction(context, true, jdbcTemplate ->
+                    jdbcTemplate.queryForObject("select name from datasource_role", String.class)));
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, inTransaction(context, false, jdbcTemplate ->
+                    jdbcTemplate.queryForObject("select name from datasource_role", String.class)));
+
+            inTransaction(context, false, jdbcTemplate -> jdbcTemplate.update("insert into written values (1)"));
+
+            assertEquals(1, countWritten(primaryUrl));
+            assertEquals(0, countWritten(replicaUrl));
+        });
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToPrimaryWhenReplicaIsNotStreaming() {
+        jdbcTemplate(replicaUrl).update("update pg_stat_wal_receiver set status = 'waiting'");
+
+        contextRunner.run(context -> {
+            context.getBean(ReplicaRoutingDataSource.class).checkReplicas();
+
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, inTransaction(context, true, jdbcTemplate ->
+                    jdbcTemplate.queryForObject("select name from datasource_role", String.class)));
+            assertEquals(Double.NaN, context.getBean(MeterRegistry.class).get("product.datasource.replica.lag")
+                    .tag("replica", "replica-0").gauge().value());
+        });
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsReadingFromPrimaryToPrimary() {
+        contextRunner.withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class))
+                .withUserConfiguration(ReadFromPrimaryAspect.class, DatasourceRoleReader.class)
+                .run(context -> {
+                    context.getBean(ReplicaRoutingDataSource.class).checkReplicas();
+                    var reader = context.getBean(DatasourceRoleReader.class);
+
+                    assertEquals(ReplicaRoutingDataSource.PRIMARY, reader.readFromPrimary());
+                    assertEquals("replica-0", reader.read());
+                });
+    }
+
+    @Test
+    void shouldShedCallersOfSaturatedPoolWithoutAffectingOtherPools() {
+        contextRunner.run(context -> {
+            var replicaRoutingDataSource = context.getBean(ReplicaRoutingDataSource.class);
+            replicaRoutingDataSource.checkReplicas();
+            // The lazy proxy reads the connection defaults from the first connection it is asked for
+            inTransaction(context, false, jdbcTemplate -> jdbcTemplate.queryForObject("select 1", Integer.class));
+
+            try (var first = replicaRoutingDataSource.getConnection();
+                 var second = replicaRoutingDataSource.getConnection()) {
+                assertThrows(DatabaseBusyException.class, replicaRoutingDataSource::getConnection);
+
+                assertEquals("replica-0", inTransaction(context, true, jdbcTemplate ->
+                        jdbcTemplate.queryForObject("select name from datasource_role", String.class)));
+            }
+            assertEquals(1, context.getBean(MeterRegistry.class).get("product.datasource.bulkhead.rejected")
+                    .tag("pool", "product-primary").counter().count());
+        });
+    }
+
+    @Test
+    void shouldSizeBulkheadToHikariDefaultWhenPoolSizeIsNotSet() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+                .withUserConfiguration(DataSourceConfiguration.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.datasource.url=" + primaryUrl,
+                        "datasource.replica.max-lag-seconds=5",
+                        "datasource.bulkhead.acquire-timeout-ms=100")
+                .run(context -> {
+                    var replicaRoutingDataSource = context.getBean(ReplicaRoutingDataSource.class);
+                    var connections = new ArrayList<Connection>();
+                    try {
+                        for (var i = 0; i < 10; i++) {
+                            connections.add(replicaRoutingDataSource.getConnection());
+                        }
+                        assertThrows(DatabaseBusyException.class, replicaRoutingDataSource::getConnection);
+                    } finally {
+                        for (var connection : connections) {
+                            connection.close();
+                        }
+                    }
+                });
+    }
+
+    @Test
+    void shouldRejectAcquireTimeoutNotBelowConnectionTimeout() {
+        contextRunner.withPropertyValues("spring.datasource.hikari.connection-timeout=250", "datasource.bulkhead.acquire-timeout-ms=250")
+                .run(context -> assertInstanceOf(IllegalStateException.class,
+                        NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure())));
+    }
+
+    static class DatasourceRoleReader {
+        private final JdbcTemplate jdbcTemplate;
+
+        DatasourceRoleReader(DataSource dataSource) {
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        @Transactional(readOnly = true)
+        public String read() {
+            return jdbcTemplate.queryForObject("select name from datasource_role", String.class);
+        }
+
+        @ReadFromPrimary
+        @Transactional(readOnly = true)
+        public String readFromPrimary() {
+            assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return read();
+        }
+    }
+
+    private static <T> T inTransaction(ApplicationContext context, boolean readOnly,
+                                       Function<JdbcTemplate, T> callback) {
+        var transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+        var jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        return transactionTemplate.execute(status -> callback.apply(jdbcTemplate));
+    }
+
+    private static void createDatabase(String url, String role) {
+        var database = jdbcTemplate(url);
+        database.execute("create table datasource_role (name varchar(16))");
+        database.update("insert into datasource_role values (?)", role);
+        database.execute("create table written (id int)");
+    }
+
+    private static JdbcTemplate jdbcTemplate(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+
+    private static int countWritten(String url) {
+        return jdbcTemplate(url).queryForObject("select count(*) from written", Integer.class);
+    }
+}
@@ -0,0 +1,141 @@
+package com.dietapp.productservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private static final double MAX_LAG_SECONDS = 5;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource primary;
+    private DataSource firstReplica;
+    private DataSource secondReplica;
+    private ResultSet firstReplicaLag;
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    void beforeEach() throws SQLException {
+        this.firstReplicaLag = mockLagResult();
+        this.primary = mockDataSource(mockLagResult());
+        this.firstReplica = mockDataSource(firstReplicaLag);
+        this.secondReplica = mockDataSource(mockLagResult());
+        var replicas = new LinkedHashMap<String, DataSource>();
+        replicas.put("replica-0", firstReplica);
+        replicas.put("replica-1", secondReplica);
+        this.replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replicas, MAX_LAG_SECONDS, meterRegistry);
+        replicaRoutingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void afterEach() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.setReadFromPrimary(false);
+    }
+
+    @Test
+    void shouldRouteReadWriteTransactionsToPrimary() {
+        replicaRoutingDataSource.checkReplicas();
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, replicaRoutingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToPrimaryBeforeReplicasWereChecked() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, replicaRoutingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToPrimaryWhenReadingFromPrimary() {
+        replicaRoutingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.setReadFromPrimary(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, replicaRoutingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void shouldBalanceReadOnlyTransactionsAcrossHealthyReplicas() throws SQLException {
+        replicaRoutingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var connections = List.of(replicaRoutingDataSource.getConnection(), replicaRoutingDataSource.getConnection());
+
+        assertTrue(connections.contains(firstReplica.getConnection()));
+        assertTrue(connections.contains(secondReplica.getConnection()));
+    }
+
+    @Test
+    void shouldSkipLaggingAndUnreachableReplicas() throws SQLException {
+        replicaRoutingDataSource.checkReplicas();
+        when(firstReplicaLag.getDouble(1)).thenReturn(MAX_LAG_SECONDS + 1);
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        replicaRoutingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, replicaRoutingDataSource.determineCurrentLookupKey());
+        assertEquals(MAX_LAG_SECONDS + 1, meterRegistry.get("product.datasource.replica.lag").tag("replica", "replica-0").gauge().value());
+        assertTrue(Double.isNaN(meterRegistry.get("product.datasource.replica.lag").tag("replica", "replica-1").gauge().value()));
+    }
+
+    @Test
+    void shouldSkipReplicasThatAreNotStreaming() throws SQLException {
+        replicaRoutingDataSource.checkReplicas();
+        when(firstReplicaLag.wasNull()).thenReturn(true);
+        replicaRoutingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", replicaRoutingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", replicaRoutingDataSource.determineCurrentLookupKey());
+        assertTrue(Double.isNaN(meterRegistry.get("product.datasource.replica.lag").tag("replica", "replica-0").gauge().value()));
+    }
+
+    @Test
+    void shouldReturnRecoveredReplicaToRotation() throws SQLException {
+        when(firstReplicaLag.getDouble(1)).thenReturn(MAX_LAG_SECONDS + 1);
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        replicaRoutingDataSource.checkReplicas();
+        when(firstReplicaLag.getDouble(1)).thenReturn(1.0);
+        replicaRoutingDataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-0", replicaRoutingDataSource.determineCurrentLookupKey());
+    }
+
+    private DataSource mockDataSource(ResultSet lagResult) throws SQLException {
+        var dataSource = mock(DataSource.class);
+        var connection = mock(Connection.class);
+        var statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lagResult);
+        return dataSource;
+    }
+
+    private ResultSet mockLagResult() throws SQLException {
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(0.0);
+        return resultSet;
+    }
+}
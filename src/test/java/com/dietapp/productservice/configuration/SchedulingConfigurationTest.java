@@ -0,0 +1,84 @@
+package com.dietapp.productservice.configuration;
+
+import com.dietapp.productservice.repository.NotificationOutboxRepository;
+import com.dietapp.productservice.service.NotificationOutbox;
+import com.dietapp.productservice.service.NotificationOutboxRelay;
+import com.dietapp.productservice.service.NotificationPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedulingConfigurationTest {
+
+    @Test
+    void shouldCheckReplicasWhileOutboxRelayIsBlocked() throws SQLException {
+        var relayStarted = new CountDownLatch(1);
+        var relayReleased = new CountDownLatch(1);
+        var notificationOutboxRepository = mock(NotificationOutboxRepository.class);
+        when(notificationOutboxRepository.lockNextBatch(anyInt())).thenAnswer(invocation -> {
+            relayStarted.countDown();
+            relayReleased.await();
+            return List.of();
+        });
+        var replica = mockReplica();
+
+        new ApplicationContextRunner()
+                .withInitializer(new ConfigDataApplicationContextInitializer())
+                .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+                .withUserConfiguration(SchedulingConfiguration.class, NotificationOutboxRelay.class)
+                .withBean(NotificationOutboxRepository.class, () -> notificationOutboxRepository)
+                .withBean(NotificationOutbox.class, () -> mock(NotificationOutbox.class))
+                .withBean(NotificationPublisher.class, () -> mock(NotificationPublisher.class))
+                .withBean(TransactionTemplate.class, () -> new TransactionTemplate(mock(PlatformTransactionManager.class)))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(ReplicaRoutingDataSource.class, () -> new ReplicaRoutingDataSource(mock(DataSource.class),
+                        Map.of("replica-0", replica), 5, new SimpleMeterRegistry()))
+                .withPropertyValues("notification.outbox.poll-interval-ms=10", "datasource.replica.health-check-interval-ms=10")
+                .run(context -> {
+                    try {
+                        assertTrue(relayStarted.await(5, TimeUnit.SECONDS));
+
+                        verify(replica, timeout(5000).atLeast(5)).getConnection();
+                    } finally {
+                        relayReleased.countDown();
+                    }
+                });
+    }
+
+    private static DataSource mockReplica() throws SQLException {
+        var dataSource = mock(DataSource.class);
+        var connection = mock(Connection.class);
+        var statement = mock(Statement.class);
+        var resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        return dataSource;
+    }
+}
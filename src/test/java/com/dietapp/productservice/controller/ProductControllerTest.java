@@ -2,8 +2,20 @@ package com.dietapp.productservice.controller;
 
 import com.dietapp.productservice.exception.ProductNotFoundException;
 import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CursorPage;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductFilterCriteria;
+import com.dietapp.productservice.model.ProductHttpRequest;
+import com.dietapp.productservice.model.ProductLookupResult;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.ProductOperationResult;
+import com.dietapp.productservice.model.ProductPatchDto;
+import com.dietapp.productservice.model.ProductPatchHttpRequest;
+import com.dietapp.productservice.model.ProductSearchCriteria;
+import com.dietapp.productservice.model.ProductSearchMode;
+import com.dietapp.productservice.model.ProductSummaryDto;
 import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.model.ProductVersionDto;
 import com.dietapp.productservice.service.ProductService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +25,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -21,14 +35,25 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -40,6 +65,9 @@ class ProductControllerTest {
     private static final UUID POTATO_UUID = UUID.randomUUID();
     private static final Instant CREATED_DATE = Instant.now();
     private static final Instant UPDATE_DATE = Instant.now();
+    private static final String NEXT_CURSOR = "next-cursor";
+    private static final int POTATO_VERSION = 3;
+    private static final String POTATO_ETAG = "\"3\"";
 
 
     @Autowired
@@ -59,9 +87,11 @@ class ProductControllerTest {
                     pageable, 300);
         });
         when(productMapper.toHttpResponse(any(ProductDto.class)))
-                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse(i.getArgument(0)));
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductDto) i.getArgument(0)));
         when(productService.getById(eq(POTATO_UUID)))
                 .thenReturn(createProducts(1).get(0));
+        when(productService.scroll(any(), anyInt()))
+                .thenAnswer(i -> new CursorPage<>(createProducts(i.getArgument(1)), NEXT_CURSOR));
     }
 
     @Test
@@ -84,6 +114,148 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content", Matchers.hasSize(50)));
     }
 
+    @Test
+    void shouldReturnProductsAfterCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/scroll")
+                        .queryParam("cursor", "cursor")
+                        .queryParam("pageSize", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", Matchers.hasSize(10)))
+                .andExpect(jsonPath("$.next_cursor").value(NEXT_CURSOR));
+    }
+
+    @Test
+    void shouldReturnSummaryProductPage() throws Exception {
+        when(productService.getAllSummaries(any(Pageable.class))).thenAnswer(i -> new PageImpl<>(
+                List.of(createProductSummary()), i.getArgument(0), 300));
+        when(productMapper.toHttpResponse(any(ProductSummaryDto.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductSummaryDto) i.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products")
+                        .queryParam("view", "summary")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value(POTATO))
+                .andExpect(jsonPath("$.content[0].properties").doesNotExist());
+        verify(productService, never()).getAll(any());
+    }
+
+    @Test
+    void shouldReturnProductSummariesAfterCursor() throws Exception {
+        when(productService.scrollSummaries(eq("cursor"), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(createProductSummary()), NEXT_CURSOR));
+        when(productMapper.toHttpResponse(any(ProductSummaryDto.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductSummaryDto) i.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/scroll")
+                        .queryParam("cursor", "cursor")
+                        .queryParam("pageSize", "10")
+                        .queryParam("view", "summary"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.content[0].properties").doesNotExist())
+                .andExpect(jsonPath("$.next_cursor").value(NEXT_CURSOR));
+    }
+
+    @Test
+    void shouldReturnProductSummaryByName() throws Exception {
+        when(productService.getSummaryByName(eq(POTATO))).thenReturn(createProductSummary());
+        when(productMapper.toHttpResponse(any(ProductSummaryDto.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductSummaryDto) i.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products")
+                        .queryParam("name", POTATO)
+                        .queryParam("view", "summary"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(POTATO_UUID.toString()))
+                .andExpect(jsonPath("$.properties").doesNotExist());
+        verify(productService, never()).getByName(any());
+    }
+
+    @Test
+    void shouldReturnProductSummariesMatchingSearch() throws Exception {
+        var criteria = ProductSearchCriteria.builder()
+                .query("pot")
+                .mode(ProductSearchMode.FUZZY)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .kcalMax(100.0)
+                .limit(5)
+                .build();
+        when(productService.search(eq(criteria))).thenReturn(List.of(ProductSummaryDto.builder()
+                .id(POTATO_UUID)
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .build()));
+        when(productMapper.toHttpResponse(any(ProductSummaryDto.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductSummaryDto) i.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/search")
+                        .queryParam("query", "pot")
+                        .queryParam("mode", "FUZZY")
+                        .queryParam("type", ProductType.FRUITS_AND_VEGETABLES.name())
+                        .queryParam("kcalMax", "100")
+                        .queryParam("limit", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(POTATO_UUID.toString()))
+                .andExpect(jsonPath("$[0].name").value(POTATO))
+                .andExpect(jsonPath("$[0].properties").doesNotExist());
+    }
+
+    @Test
+    void shouldFilterProductsByPropertyParameters() throws Exception {
+        var criteria = ProductFilterCriteria.builder()
+                .properties(Map.of("gluten", "free", "vegan", "true"))
+                .type(ProductType.DAIRY)
+                .kcalMax(200.0)
+                .build();
+        when(productService.filter(eq(criteria), eq(PageRequest.of(1, 5))))
+                .thenAnswer(i -> new PageImpl<>(List.of(createProductSummary()), i.getArgument(1), 6));
+        when(productMapper.toHttpResponse(any(ProductSummaryDto.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductSummaryDto) i.getArgument(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/filter")
+                        .queryParam("property.gluten", "free")
+                        .queryParam("property.vegan", "true")
+                        .queryParam("type", ProductType.DAIRY.name())
+                        .queryParam("kcalMax", "200")
+                        .queryParam("pageNumber", "1")
+                        .queryParam("pageSize", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value(POTATO))
+                .andExpect(jsonPath("$.totalElements").value(6));
+    }
+
+    @Test
+    void shouldExportProductsAsNdjson() throws Exception {
+        doAnswer(i -> {
+            Consumer<ProductDto> consumer = i.getArgument(1);
+            createProducts(2).forEach(consumer);
+            return null;
+        }).when(productService).export(eq(UPDATE_DATE), any());
+
+        var result = mockMvc.perform(MockMvcRequestBuilders.get("/products/export")
+                        .queryParam("updatedSince", UPDATE_DATE.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(Matchers.matchesPattern("(\\{\"id\":\"%s\".*}\n){2}".formatted(POTATO_UUID))));
+    }
+
     @Test
     void shouldReturnProductById() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/products/" + POTATO_UUID)
@@ -97,6 +269,41 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.properties.KCAL_AFTER_BOILED").value(KCAL_AFTER_BOILED_VALUE));
     }
 
+    @Test
+    void shouldReturnProductValidators() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/" + POTATO_UUID))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, POTATO_ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        verify(productService, never()).getVersion(any());
+    }
+
+    @Test
+    void shouldReturn304NotModifiedWhenETagMatches() throws Exception {
+        when(productService.getVersion(POTATO_UUID)).thenReturn(new ProductVersionDto(POTATO_VERSION, UPDATE_DATE));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/" + POTATO_UUID)
+                        .header(HttpHeaders.IF_NONE_MATCH, POTATO_ETAG))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, POTATO_ETAG))
+                .andExpect(content().string(""));
+        verify(productService, never()).getById(any());
+    }
+
+    @Test
+    void shouldReturnProductWhenETagDoesNotMatch() throws Exception {
+        when(productService.getVersion(POTATO_UUID)).thenReturn(new ProductVersionDto(POTATO_VERSION, UPDATE_DATE));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/" + POTATO_UUID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, POTATO_ETAG))
+                .andExpect(jsonPath("$.id").value(POTATO_UUID.toString()));
+    }
+
     @Test
     void shouldReturn404NotFoundWhenProductNotFoundById() throws Exception {
         when(productService.getById(any(UUID.class)))
@@ -107,6 +314,124 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldReturnProductsAndMissingIdsForLookup() throws Exception {
+        var missingId = UUID.randomUUID();
+        when(productMapper.toHttpResponse(any(ProductLookupResult.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductLookupResult) i.getArgument(0)));
+        when(productService.getByIds(List.of(POTATO_UUID, missingId)))
+                .thenReturn(new ProductLookupResult(createProducts(1), List.of(missingId)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                ["%s", "%s"]""".formatted(POTATO_UUID, missingId)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id").value(POTATO_UUID.toString()))
+                .andExpect(jsonPath("$.products[0].properties.KCAL_AFTER_BOILED").value(KCAL_AFTER_BOILED_VALUE))
+                .andExpect(jsonPath("$.missing_ids[0]").value(missingId.toString()));
+    }
+
+    @Test
+    void shouldReturnPatchedProduct() throws Exception {
+        var patch = ProductPatchDto.builder()
+                .kcal(POTATO_KCAL)
+                .build();
+        when(productMapper.toPatchDto(any(ProductPatchHttpRequest.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toPatchDto((ProductPatchHttpRequest) i.getArgument(0)));
+        when(productService.patch(eq(POTATO_UUID), eq(patch), isNull())).thenReturn(Optional.of(createProducts(1).get(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/products/" + POTATO_UUID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kcal": 73.0}"""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(POTATO_UUID.toString()))
+                .andExpect(jsonPath("$.kcal").value(POTATO_KCAL));
+    }
+
+    @Test
+    void shouldPassIfMatchVersionToPatch() throws Exception {
+        when(productService.patch(eq(POTATO_UUID), any(), eq(POTATO_VERSION)))
+                .thenReturn(Optional.of(createProducts(1).get(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/products/" + POTATO_UUID)
+                        .header(HttpHeaders.IF_MATCH, POTATO_ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kcal": 73.0}"""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, POTATO_ETAG));
+    }
+
+    @Test
+    void shouldReturn412PreconditionFailedWhenIfMatchIsNotVersionTag() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/products/" + POTATO_UUID)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kcal": 73.0}"""))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        verify(productService, never()).patch(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturn304NotModifiedWhenPatchChangesNothing() throws Exception {
+        when(productService.patch(eq(POTATO_UUID), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/products/" + POTATO_UUID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kcal": 73.0}"""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldReturnResultForEveryProductInBatch() throws Exception {
+        when(productMapper.toOperation(any(ProductHttpRequest.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toOperation(i.getArgument(0)));
+        when(productMapper.toHttpResponse(any(ProductOperationResult.class)))
+                .thenAnswer(i -> Mappers.getMapper(ProductMapper.class).toHttpResponse((ProductOperationResult) i.getArgument(0)));
+        when(productService.processBatch(any())).thenAnswer(i -> {
+            List<ProductOperation> operations = i.getArgument(0);
+            return List.of(ProductOperationResult.success(operations.get(0), createProducts(1).get(0)),
+                    ProductOperationResult.failure(operations.get(1), new ProductNotFoundException("Product not found")));
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"name": "Potato", "kcal": 73.0, "type": "FRUITS_AND_VEGETABLES", "properties": {}},
+                                  {"id": "%s", "name": "Potato", "kcal": 74.0, "type": "FRUITS_AND_VEGETABLES", "properties": {}}
+                                ]""".formatted(POTATO_UUID)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].operation").value("CREATE"))
+                .andExpect(jsonPath("$[0].successful").value(true))
+                .andExpect(jsonPath("$[1].operation").value("UPDATE"))
+                .andExpect(jsonPath("$[1].id").value(POTATO_UUID.toString()))
+                .andExpect(jsonPath("$[1].successful").value(false))
+                .andExpect(jsonPath("$[1].error").value("Product not found"));
+    }
+
+    private ProductSummaryDto createProductSummary() {
+        return ProductSummaryDto.builder()
+                .id(POTATO_UUID)
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .build();
+    }
+
     private List<ProductDto> createProducts(int size) {
         return IntStream.range(0, size)
                 .mapToObj(e -> ProductDto.builder()
@@ -116,8 +441,9 @@ class ProductControllerTest {
                         .type(ProductType.FRUITS_AND_VEGETABLES)
                         .createdDate(CREATED_DATE)
                         .lastUpdatedDate(UPDATE_DATE)
+                        .version(POTATO_VERSION)
                         .properties(Map.of(KCAL_AFTER_BOILED, KCAL_AFTER_BOILED_VALUE))
                         .build())
                 .toList();
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,11 @@
 package com.dietapp.productservice.mapper;
 
+import com.dietapp.productservice.model.BulkProductMessage;
 import com.dietapp.productservice.model.CreateProductMessage;
 import com.dietapp.productservice.model.CustomProperty;
 import com.dietapp.productservice.model.Product;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductOperationType;
 import com.dietapp.productservice.model.ProductType;
 import com.dietapp.productservice.model.UpdateProductMessage;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,12 +13,14 @@ import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProductMapperTest {
@@ -29,6 +33,7 @@ class ProductMapperTest {
     private static final UUID PROPERTY_UUID = UUID.randomUUID();
     private static final Instant CREATED_DATE = Instant.now();
     private static final Instant UPDATE_DATE = Instant.now();
+    private static final int POTATO_VERSION = 3;
 
     private ProductMapper productMapper;
 
@@ -56,6 +61,17 @@ class ProductMapperTest {
         assertNull(property.getId());
     }
 
+    @Test
+    void shouldMapDtoWithoutPropertiesToEntity() {
+        var entity = productMapper.toEntity(ProductDto.builder()
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .build());
+
+        assertNotNull(entity.getProperties());
+        assertTrue(entity.getProperties().isEmpty());
+    }
+
     @Test
     void shouldMapEntityToDto() {
         var dto = productMapper.toDto(createProduct());
@@ -63,6 +79,9 @@ class ProductMapperTest {
         assertEquals(POTATO, dto.name());
         assertEquals(POTATO_KCAL, dto.kcal());
         assertEquals(ProductType.FRUITS_AND_VEGETABLES, dto.type());
+        assertEquals(CREATED_DATE, dto.createdDate());
+        assertEquals(UPDATE_DATE, dto.lastUpdatedDate());
+        assertEquals(POTATO_VERSION, dto.version());
 
         var properties = dto.properties();
         assertNotNull(properties);
@@ -85,6 +104,21 @@ class ProductMapperTest {
         assertEquals(KCAL_AFTER_BOILED_VALUE, properties.get(KCAL_AFTER_BOILED));
     }
 
+    @Test
+    void shouldMapEntityWithoutPropertiesToDto() {
+        var product = createProduct();
+        product.setProperties(null);
+
+        var dto = productMapper.toDto(product);
+        assertTrue(dto.properties().isEmpty());
+    }
+
+    @Test
+    void shouldReuseDtoPropertiesInHttpResponse() {
+        var dto = createProductDto();
+        assertSame(dto.properties(), productMapper.toHttpResponse(dto).properties());
+    }
+
     @Test
     void shouldMapCreationMessageToDto() {
         var message = CreateProductMessage.builder()
@@ -130,12 +164,40 @@ class ProductMapperTest {
         assertEquals(KCAL_AFTER_BOILED_VALUE, properties.get(KCAL_AFTER_BOILED));
     }
 
+    @Test
+    void shouldMapBulkMessageToOperations() {
+        var message = BulkProductMessage.builder()
+                .create(List.of(CreateProductMessage.builder()
+                        .name(POTATO)
+                        .kcal(POTATO_KCAL)
+                        .properties(Map.of())
+                        .build()))
+                .update(List.of(UpdateProductMessage.builder()
+                        .id(POTATO_UUID)
+                        .name(POTATO)
+                        .kcal(POTATO_KCAL)
+                        .properties(Map.of())
+                        .build()))
+                .build();
+
+        var operations = productMapper.toOperations(message);
+        assertEquals(2, operations.size());
+        assertEquals(ProductOperationType.CREATE, operations.get(0).type());
+        assertNull(operations.get(0).id());
+        assertEquals(ProductOperationType.UPDATE, operations.get(1).type());
+        assertEquals(POTATO_UUID, operations.get(1).id());
+        assertEquals(POTATO, operations.get(1).product().name());
+    }
+
     private Product createProduct() {
         var product = Product.builder()
                 .id(POTATO_UUID)
                 .type(ProductType.FRUITS_AND_VEGETABLES)
                 .name(POTATO)
                 .kcal(POTATO_KCAL)
+                .createdDate(CREATED_DATE)
+                .lastUpdatedDate(UPDATE_DATE)
+                .version(POTATO_VERSION)
                 .build();
 
         var property = CustomProperty.builder()
@@ -0,0 +1,34 @@
+package com.dietapp.productservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void shouldGenerateVersion7Uuids() {
+        var uuid = TimeOrderedUuidGenerator.generate();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(Math.abs(System.currentTimeMillis() - (uuid.getMostSignificantBits() >>> 16)) < 1_000);
+    }
+
+    @Test
+    void shouldGenerateUniqueUuidsInCreationOrder() {
+        var uuids = new ArrayList<UUID>();
+        IntStream.range(0, 100_000).forEach(i -> uuids.add(TimeOrderedUuidGenerator.generate()));
+
+        assertEquals(uuids.size(), new HashSet<>(uuids).size());
+        for (var i = 1; i < uuids.size(); i++) {
+            assertTrue(Long.compareUnsigned(uuids.get(i - 1).getMostSignificantBits(), uuids.get(i).getMostSignificantBits()) < 0);
+        }
+    }
+}
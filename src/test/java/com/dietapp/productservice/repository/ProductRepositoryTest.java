@@ -2,16 +2,25 @@ package com.dietapp.productservice.repository;
 
 import com.dietapp.productservice.model.CustomProperty;
 import com.dietapp.productservice.model.Product;
+import com.dietapp.productservice.model.ProductSummary;
 import com.dietapp.productservice.model.ProductType;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.validation.ConstraintViolationException;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -27,6 +36,12 @@ class ProductRepositoryTest {
     @Autowired
     private CustomPropertiesRepository customPropertiesRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void shouldSuccessfullyCreateProductWithProperties() {
         var createdProduct = productRepository.save(createProduct());
@@ -103,11 +118,96 @@ class ProductRepositoryTest {
         assertNotNull(savedProduct.getLastUpdatedDate());
     }
 
+    @Test
+    void shouldFindVersionWithoutLoadingProduct() {
+        var savedProduct = productRepository.saveAndFlush(createProduct());
+        testEntityManager.clear();
+
+        var version = productRepository.findVersionById(savedProduct.getId());
+
+        assertTrue(version.isPresent());
+        assertEquals(savedProduct.getVersion(), version.get().getVersion());
+        assertNotNull(version.get().getLastUpdatedDate());
+        assertFalse(testEntityManager.getEntityManager().contains(savedProduct));
+    }
+
+    @Test
+    void shouldLoadPageWithPropertiesInConstantNumberOfStatements() {
+        IntStream.range(0, 30).forEach(i -> productRepository.save(createProduct()));
+
+        var smallPageStatements = countStatementsToLoadPage(5);
+        var largePageStatements = countStatementsToLoadPage(25);
+
+        assertEquals(smallPageStatements, largePageStatements);
+        assertEquals(3, largePageStatements);
+    }
+
+    @Test
+    void shouldFindProductsByNamePrefixIgnoringCase() {
+        productRepository.saveAndFlush(createProduct("Potato", ProductType.FRUITS_AND_VEGETABLES, 73.0));
+        productRepository.saveAndFlush(createProduct("Potato chips", ProductType.FATS, 536.0));
+        productRepository.saveAndFlush(createProduct("Sweet potato", ProductType.FRUITS_AND_VEGETABLES, 86.0));
+
+        var allTypes = productRepository.searchByNamePrefix("pot%", true, "", 0, Double.MAX_VALUE, 10);
+        var vegetables = productRepository.searchByNamePrefix("POT%", false, ProductType.FRUITS_AND_VEGETABLES.name(), 0, 100, 10);
+
+        assertEquals(List.of("Potato", "Potato chips"), allTypes.stream().map(ProductSummary::getName).toList());
+        assertEquals(List.of("Potato"), vegetables.stream().map(ProductSummary::getName).toList());
+        assertEquals(ProductType.FRUITS_AND_VEGETABLES, vegetables.get(0).getType());
+    }
+
+    @Test
+    void shouldFindProductsBySimilarName() {
+        productRepository.saveAndFlush(createProduct("Potato", ProductType.FRUITS_AND_VEGETABLES, 73.0));
+        productRepository.saveAndFlush(createProduct("Tomato", ProductType.FRUITS_AND_VEGETABLES, 18.0));
+
+        var products = productRepository.searchByNameSimilarity("potatoe", true, "", 0, Double.MAX_VALUE, 10);
+
+        assertEquals("Potato", products.get(0).getName());
+    }
+
+    @Test
+    void shouldFindProductsContainingAllProperties() {
+        var glutenFreePotato = createProduct("Potato", ProductType.FRUITS_AND_VEGETABLES, 73.0);
+        glutenFreePotato.addProperty(CustomProperty.builder().name("gluten").value("free").product(glutenFreePotato).build());
+        var bread = createProduct("Bread", ProductType.GRAIN_PRODUCTS, 250.0);
+        bread.addProperty(CustomProperty.builder().name("gluten").value("contains").product(bread).build());
+        productRepository.saveAndFlush(glutenFreePotato);
+        productRepository.saveAndFlush(bread);
+
+        var glutenFree = productRepository.filter("{\"gluten\": \"free\"}", true, "", 0, Double.MAX_VALUE, PageRequest.of(0, 10));
+        var boiledGlutenFree = productRepository.filter("{\"gluten\": \"free\", \"KCAL_AFTER_BOILED\": \"66.0\"}",
+                true, "", 0, Double.MAX_VALUE, PageRequest.of(0, 10));
+        var lowKcalGrains = productRepository.filter("{}", false, ProductType.GRAIN_PRODUCTS.name(), 0, 200, PageRequest.of(0, 10));
+
+        assertEquals(List.of("Potato"), glutenFree.stream().map(ProductSummary::getName).toList());
+        assertEquals(List.of("Potato"), boiledGlutenFree.stream().map(ProductSummary::getName).toList());
+        assertEquals(1, glutenFree.getTotalElements());
+        assertTrue(lowKcalGrains.isEmpty());
+    }
+
+    private long countStatementsToLoadPage(int pageSize) {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var products = productRepository.findAll(PageRequest.of(0, pageSize)).getContent();
+        productRepository.findAllWithPropertiesByIdIn(products.stream().map(Product::getId).toList());
+        products.forEach(product -> assertEquals(1, product.getProperties().size()));
+
+        return statistics.getPrepareStatementCount();
+    }
+
     private Product createProduct() {
+        return createProduct("Potato", ProductType.FRUITS_AND_VEGETABLES, 73.0);
+    }
+
+    private Product createProduct(String name, ProductType type, double kcal) {
         var product = Product.builder()
-                .type(ProductType.FRUITS_AND_VEGETABLES)
-                .name("Potato")
-                .kcal(73.0)
+                .type(type)
+                .name(name)
+                .kcal(kcal)
                 .build();
 
         var property = CustomProperty.builder()
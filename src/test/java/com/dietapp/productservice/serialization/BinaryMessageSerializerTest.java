@@ -0,0 +1,184 @@
+package com.dietapp.productservice.serialization;
+
+import com.dietapp.productservice.model.BulkProductMessage;
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.NotificationCode;
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class BinaryMessageSerializerTest {
+    private static final String TOPIC = "product.service.test";
+    private static final String POTATO = "Potato";
+    private static final double POTATO_KCAL = 73.0;
+    private static final UUID POTATO_UUID = UUID.randomUUID();
+    private static final Map<String, String> POTATO_PROPERTIES = Map.of("KCAL_AFTER_BOILED", "66.0", "ORIGIN", "Żywiec");
+    private static final int MESSAGES = 20_000;
+
+    private final BinaryMessageSerializer binarySerializer = new BinaryMessageSerializer();
+    private final BinaryMessageDeserializer binaryDeserializer = new BinaryMessageDeserializer();
+
+    @Test
+    void shouldRoundTripProductMessages() {
+        var create = createProductMessage();
+        var update = UpdateProductMessage.builder()
+                .id(POTATO_UUID)
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .properties(POTATO_PROPERTIES)
+                .build();
+        var delete = new DeleteProductMessage(POTATO_UUID);
+        var bulk = BulkProductMessage.builder()
+                .create(List.of(create, create))
+                .build();
+        var removedProperties = new HashMap<String, String>();
+        removedProperties.put("ORIGIN", null);
+        var patch = PatchProductMessage.builder()
+                .id(POTATO_UUID)
+                .kcal(POTATO_KCAL)
+                .properties(removedProperties)
+                .build();
+
+        assertEquals(create, roundTrip(create));
+        assertEquals(update, roundTrip(update));
+        assertEquals(delete, roundTrip(delete));
+        assertEquals(bulk, roundTrip(bulk));
+        assertEquals(patch, roundTrip(patch));
+    }
+
+    @Test
+    void shouldRoundTripNotificationWithProduct() {
+        var notification = NotificationMessage.builder()
+                .message("New product was created (%s)".formatted(POTATO))
+                .code(NotificationCode.PRODUCT_CREATED)
+                .properties(Map.of("product", ProductDto.builder()
+                        .id(POTATO_UUID)
+                        .name(POTATO)
+                        .kcal(POTATO_KCAL)
+                        .type(ProductType.FRUITS_AND_VEGETABLES)
+                        .properties(POTATO_PROPERTIES)
+                        .createdDate(Instant.now())
+                        .lastUpdatedDate(Instant.now())
+                        .version(3)
+                        .build()))
+                .build();
+        var errorNotification = NotificationMessage.builder()
+                .code(NotificationCode.PRODUCT_REMOVED_ERROR)
+                .build();
+
+        assertEquals(notification, roundTrip(notification));
+        assertEquals(errorNotification, roundTrip(errorNotification));
+    }
+
+    @Test
+    void shouldPassNullThroughAndRejectUnknownPayloads() {
+        assertNull(binarySerializer.serialize(TOPIC, null));
+        assertNull(binaryDeserializer.deserialize(TOPIC, null));
+        assertThrows(SerializationException.class, () -> binarySerializer.serialize(TOPIC, POTATO));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, new byte[]{BinaryMessageCodec.FORMAT_VERSION, 99}));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, "{\"id\":1}".getBytes()));
+    }
+
+    @Test
+    void shouldRejectMalformedLengthsAndNesting() {
+        var maxLength = new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        var negativeLength = new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        var create = binarySerializer.serialize(TOPIC, createProductMessage());
+        // Notification whose properties are 1000 nested single-entry maps ending with a null value
+        var deeplyNested = new byte[5 + 3 * 1000];
+        deeplyNested[0] = BinaryMessageCodec.FORMAT_VERSION;
+        deeplyNested[1] = 5;
+        for (var depth = 0; depth < 1000; depth++) {
+            deeplyNested[4 + 3 * depth] = 5;
+            deeplyNested[5 + 3 * depth] = 1;
+            deeplyNested[6 + 3 * depth] = 1;
+        }
+
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, concat(new byte[]{BinaryMessageCodec.FORMAT_VERSION, 1}, maxLength)));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, concat(new byte[]{BinaryMessageCodec.FORMAT_VERSION, 1}, negativeLength)));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, concat(new byte[]{BinaryMessageCodec.FORMAT_VERSION, 4}, maxLength)));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, concat(new byte[]{BinaryMessageCodec.FORMAT_VERSION, 5, 0, 0, 5}, maxLength)));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, Arrays.copyOf(create, create.length - 3)));
+        assertThrows(SerializationException.class, () -> binaryDeserializer.deserialize(TOPIC, deeplyNested));
+    }
+
+    @Test
+    void shouldEncodeSmallerAndFasterThanJson() {
+        try (var jsonSerializer = new JsonSerializer<Object>(); var jsonDeserializer = new JsonDeserializer<>()) {
+            jsonDeserializer.addTrustedPackages("com.dietapp.productservice.model");
+            var messages = IntStream.range(0, MESSAGES)
+                    .mapToObj(i -> CreateProductMessage.builder()
+                            .name(POTATO + i)
+                            .kcal(POTATO_KCAL + i)
+                            .type(ProductType.FRUITS_AND_VEGETABLES)
+                            .properties(POTATO_PROPERTIES)
+                            .build())
+                    .toList();
+
+            var jsonBytes = 0L;
+            var jsonStart = System.nanoTime();
+            for (var message : messages) {
+                var headers = new RecordHeaders();
+                var data = jsonSerializer.serialize(TOPIC, headers, message);
+                jsonBytes += data.length;
+                jsonDeserializer.deserialize(TOPIC, headers, data);
+            }
+            var jsonNanos = System.nanoTime() - jsonStart;
+
+            var binaryBytes = 0L;
+            var binaryStart = System.nanoTime();
+            for (var message : messages) {
+                var data = binarySerializer.serialize(TOPIC, message);
+                binaryBytes += data.length;
+                binaryDeserializer.deserialize(TOPIC, data);
+            }
+            var binaryNanos = System.nanoTime() - binaryStart;
+
+            log.info("{} messages round trip - JSON: {} bytes, {} ms; binary: {} bytes, {} ms", MESSAGES,
+                    jsonBytes, jsonNanos / 1_000_000, binaryBytes, binaryNanos / 1_000_000);
+            assertTrue(binaryBytes * 3 < jsonBytes * 2);
+        }
+    }
+
+    private CreateProductMessage createProductMessage() {
+        return CreateProductMessage.builder()
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(POTATO_PROPERTIES)
+                .build();
+    }
+
+    private Object roundTrip(Object message) {
+        return binaryDeserializer.deserialize(TOPIC, binarySerializer.serialize(TOPIC, message));
+    }
+
+    private static byte[] concat(byte[] head, byte[] tail) {
+        var bytes = Arrays.copyOf(head, head.length + tail.length);
+        System.arraycopy(tail, 0, bytes, head.length, tail.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.ProcessedMessage;
+import com.dietapp.productservice.repository.ProcessedMessageRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageDeduplicatorTest {
+    private static final String TOPIC = "product.service.test";
+    private static final String POTATO = "Potato";
+
+    private ProcessedMessageRepository processedMessageRepository;
+    private MessageDeduplicator messageDeduplicator;
+
+    @BeforeEach
+    void beforeEach() {
+        this.processedMessageRepository = mock(ProcessedMessageRepository.class);
+        this.messageDeduplicator = new MessageDeduplicator(processedMessageRepository, 100, 60);
+    }
+
+    @Test
+    void shouldPreferIdempotencyKeyHeader() {
+        var first = new ConsumerRecord<String, Object>(TOPIC, 0, 1, null, new DeleteProductMessage(UUID.randomUUID()));
+        first.headers().add(MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, "key-1".getBytes(StandardCharsets.UTF_8));
+        var second = new ConsumerRecord<String, Object>(TOPIC, 1, 7, null, new DeleteProductMessage(UUID.randomUUID()));
+        second.headers().add(MessageDeduplicator.IDEMPOTENCY_KEY_HEADER, "key-1".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(messageDeduplicator.keyOf(first), messageDeduplicator.keyOf(second));
+    }
+
+    @Test
+    void shouldNotTreatIdenticalCreatesAsDuplicates() {
+        var message = CreateProductMessage.builder().name(POTATO).build();
+
+        assertEquals(messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)),
+                messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)));
+        assertNotEquals(messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)),
+                messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 5, null, message)));
+    }
+
+    @Test
+    void shouldDeriveOtherMessageKeysFromRecordPosition() {
+        var message = new DeleteProductMessage(UUID.randomUUID());
+
+        assertEquals(messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)),
+                messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)));
+        assertNotEquals(messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 1, null, message)),
+                messageDeduplicator.keyOf(new ConsumerRecord<>(TOPIC, 0, 2, null, message)));
+    }
+
+    @Test
+    void shouldAnswerFromWindowAfterMessageWasProcessed() {
+        assertFalse(messageDeduplicator.isDuplicate("key-1"));
+
+        messageDeduplicator.markProcessed("key-1");
+
+        assertTrue(messageDeduplicator.isDuplicate("key-1"));
+        verify(processedMessageRepository).save(any(ProcessedMessage.class));
+        verify(processedMessageRepository).existsById("key-1");
+    }
+
+    @Test
+    void shouldFallBackToStoreOutsideOfWindow() {
+        when(processedMessageRepository.existsById("key-1")).thenReturn(true);
+
+        assertTrue(messageDeduplicator.isDuplicate("key-1"));
+        assertTrue(messageDeduplicator.isDuplicate("key-1"));
+
+        verify(processedMessageRepository).existsById("key-1");
+        verify(processedMessageRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.NotificationOutboxMessage;
+import com.dietapp.productservice.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxRelayTest {
+    private static final String TOPIC = "notification.service.test";
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_IN_FLIGHT = 10 * BATCH_SIZE;
+    private static final long MAX_BACKLOG = 5 * BATCH_SIZE;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NotificationOutboxRepository notificationOutboxRepository;
+    private MessageListenerContainer listenerContainer;
+    private NotificationPublisher notificationPublisher;
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), any())).thenAnswer(i -> CompletableFuture.<SendResult<String, Object>>supplyAsync(() -> null,
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        this.listenerContainer = mock(MessageListenerContainer.class);
+        when(listenerContainer.isRunning()).thenReturn(true);
+        when(listenerContainer.isPauseRequested()).thenReturn(true);
+        var kafkaListenerEndpointRegistry = mock(KafkaListenerEndpointRegistry.class);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(listenerContainer));
+        this.notificationPublisher = new NotificationPublisher(kafkaTemplate, kafkaListenerEndpointRegistry, meterRegistry,
+                MAX_IN_FLIGHT, 1000);
+
+        this.notificationOutboxRepository = mock(NotificationOutboxRepository.class);
+        var notificationOutbox = mock(NotificationOutbox.class);
+        when(notificationOutbox.readPayload(any())).thenReturn(NotificationMessage.builder()
+                .message("Product created")
+                .build());
+        var transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        this.notificationOutboxRelay = new NotificationOutboxRelay(notificationOutboxRepository, notificationOutbox,
+                notificationPublisher, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "sendTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(notificationOutboxRelay, "maxBacklog", MAX_BACKLOG);
+    }
+
+    @Test
+    void shouldNotPauseConsumersForFullBatchThatIsAcknowledgedPromptly() {
+        when(notificationOutboxRepository.lockNextBatch(anyInt()))
+                .thenReturn(outboxMessages(BATCH_SIZE))
+                .thenReturn(List.of());
+        when(notificationOutboxRepository.count()).thenReturn((long) BATCH_SIZE);
+
+        notificationOutboxRelay.relay();
+
+        verify(listenerContainer, never()).pause();
+        assertFalse(notificationPublisher.isConsumersPaused());
+        assertEquals(BATCH_SIZE, meterRegistry.get("product.notification.relayed").counter().count());
+    }
+
+    @Test
+    void shouldPauseConsumersWhileOutboxHasBacklogAndResumeOnceItIsHalved() {
+        when(notificationOutboxRepository.lockNextBatch(anyInt()))
+                .thenReturn(outboxMessages(BATCH_SIZE))
+                .thenReturn(outboxMessages(BATCH_SIZE))
+                .thenReturn(outboxMessages(BATCH_SIZE))
+                .thenReturn(List.of());
+        when(notificationOutboxRepository.count())
+                .thenReturn(MAX_BACKLOG + 1)
+                .thenReturn(MAX_BACKLOG)
+                .thenReturn(MAX_BACKLOG / 2);
+
+        notificationOutboxRelay.relay();
+
+        var listener = inOrder(listenerContainer);
+        listener.verify(listenerContainer).pause();
+        listener.verify(listenerContainer).resume();
+        assertFalse(notificationPublisher.isConsumersPaused());
+    }
+
+    @Test
+    void shouldNotPauseConsumersForPartialBatch() {
+        when(notificationOutboxRepository.lockNextBatch(anyInt())).thenReturn(outboxMessages(BATCH_SIZE - 1));
+
+        notificationOutboxRelay.relay();
+
+        verify(listenerContainer, never()).pause();
+        verify(notificationOutboxRepository).deleteAllInBatch(any());
+    }
+
+    private List<NotificationOutboxMessage> outboxMessages(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> NotificationOutboxMessage.builder()
+                        .id(id)
+                        .topic(TOPIC)
+                        .payload("{}")
+                        .build())
+                .toList();
+    }
+}
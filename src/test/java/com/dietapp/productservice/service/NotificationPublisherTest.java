@@ -0,0 +1,119 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.NotificationMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.BufferExhaustedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationPublisherTest {
+    private static final String TOPIC = "notification.service.test";
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MessageListenerContainer listenerContainer;
+    private NotificationPublisher notificationPublisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), any())).thenAnswer(i -> {
+            var send = new CompletableFuture<SendResult<String, Object>>();
+            sends.add(send);
+            return send;
+        });
+        this.listenerContainer = mock(MessageListenerContainer.class);
+        when(listenerContainer.isRunning()).thenReturn(true);
+        when(listenerContainer.isPauseRequested()).thenReturn(true);
+        var kafkaListenerEndpointRegistry = mock(KafkaListenerEndpointRegistry.class);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(listenerContainer));
+        this.notificationPublisher = new NotificationPublisher(kafkaTemplate, kafkaListenerEndpointRegistry, meterRegistry,
+                MAX_IN_FLIGHT, 50);
+    }
+
+    @Test
+    void shouldPauseConsumersWhenInFlightLimitIsReachedAndResumeWhenAcknowledged() {
+        notificationPublisher.publish(TOPIC, notification());
+        verify(listenerContainer, never()).pause();
+
+        notificationPublisher.publish(TOPIC, notification());
+        assertTrue(notificationPublisher.isConsumersPaused());
+        verify(listenerContainer).pause();
+        assertEquals(2, meterRegistry.get("product.notification.in.flight").gauge().value());
+
+        sends.get(0).complete(null);
+        assertFalse(notificationPublisher.isConsumersPaused());
+        verify(listenerContainer).resume();
+        assertEquals(1, meterRegistry.get("product.notification.delivery").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void shouldFailWhenNoInFlightPermitBecomesAvailable() {
+        notificationPublisher.publish(TOPIC, notification());
+        notificationPublisher.publish(TOPIC, notification());
+
+        assertThrows(IllegalStateException.class, () -> notificationPublisher.publish(TOPIC, notification()));
+        assertEquals(2, sends.size());
+    }
+
+    @Test
+    void shouldRecordFailureAndPauseConsumersWhenProducerBufferIsFull() {
+        notificationPublisher.publish(TOPIC, notification());
+
+        sends.get(0).completeExceptionally(new KafkaException("Send failed", new BufferExhaustedException("Buffer full")));
+
+        assertTrue(notificationPublisher.isConsumersPaused());
+        verify(listenerContainer).pause();
+        assertEquals(1, meterRegistry.get("product.notification.delivery.failures")
+                .tag("exception", "BufferExhaustedException").counter().count());
+        assertEquals(1, meterRegistry.get("product.notification.delivery").tag("outcome", "error").timer().count());
+        assertEquals(0, meterRegistry.get("product.notification.in.flight").gauge().value());
+    }
+
+    @Test
+    void shouldKeepConsumersPausedForOutboxBacklogWhenMessagesAreAcknowledged() {
+        notificationPublisher.pauseConsumersForOutboxBacklog(1000);
+        notificationPublisher.publish(TOPIC, notification());
+        notificationPublisher.publish(TOPIC, notification());
+        sends.forEach(send -> send.complete(null));
+
+        assertTrue(notificationPublisher.isConsumersPaused());
+        verify(listenerContainer).pause();
+        verify(listenerContainer, never()).resume();
+
+        notificationPublisher.resumeConsumersAfterOutboxBacklog();
+
+        assertFalse(notificationPublisher.isConsumersPaused());
+        verify(listenerContainer).resume();
+    }
+
+    private NotificationMessage notification() {
+        return NotificationMessage.builder()
+                .message("Product created")
+                .build();
+    }
+}
@@ -2,15 +2,21 @@ package com.dietapp.productservice.service;
 
 import com.dietapp.productservice.model.CreateProductMessage;
 import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.NotificationCode;
+import com.dietapp.productservice.model.NotificationMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
 import com.dietapp.productservice.model.ProductDto;
 import com.dietapp.productservice.model.ProductType;
 import com.dietapp.productservice.model.UpdateProductMessage;
+import com.dietapp.productservice.repository.NotificationOutboxRepository;
+import com.dietapp.productservice.repository.ProcessedMessageRepository;
 import com.dietapp.productservice.repository.ProductRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -22,12 +28,17 @@ import org.testcontainers.utility.DockerImageName;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.UUID;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @Testcontainers
@@ -42,6 +53,9 @@ public class ProductKafkaMessageHandlerTest {
     @Value("${kafka.topic-name}")
     private String topicName;
 
+    @Value("${kafka.notification-topic-name}")
+    private String notificationTopicName;
+
     @Container
     static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse(KAFKA_CONTAINER_NAME));
 
@@ -50,7 +64,7 @@ public class ProductKafkaMessageHandlerTest {
         registry.add("kafka.bootstrap-servers", kafka::getBootstrapServers);
     }
 
-    @Autowired
+    @SpyBean
     private KafkaTemplate<String, Object> kafkaTemplate;
 
     @Autowired
@@ -59,9 +73,19 @@ public class ProductKafkaMessageHandlerTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private ProcessedMessageRepository processedMessageRepository;
+
+    @Autowired
+    private ProductKafkaMessageHandler productKafkaMessageHandler;
+
     @AfterEach
     void afterEach() {
         productRepository.deleteAll();
+        processedMessageRepository.deleteAll();
     }
 
     @Test
@@ -122,6 +146,33 @@ public class ProductKafkaMessageHandlerTest {
                 });
     }
 
+    @Test
+    void shouldPatchProduct() {
+        var created = productService.create(ProductDto.builder()
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(POTATO_TYPE)
+                .properties(Map.of(KCAL_AFTER_BOILED, KCAL_AFTER_BOILED_VALUE))
+                .build());
+
+        var patchProductMessage = PatchProductMessage.builder()
+                .id(created.id())
+                .kcal(POTATO_KCAL + 1)
+                .build();
+
+        await()
+                .pollInterval(Duration.ofSeconds(1))
+                .atMost(3, SECONDS)
+                .untilAsserted(() -> {
+                    kafkaTemplate.send(topicName, patchProductMessage);
+
+                    var product = productService.getById(created.id());
+                    assertEquals(POTATO, product.name());
+                    assertEquals(POTATO_KCAL + 1, product.kcal());
+                    assertEquals(KCAL_AFTER_BOILED_VALUE, product.properties().get(KCAL_AFTER_BOILED));
+                });
+    }
+
     @Test
     void shouldDeleteProduct() {
         var created = productService.create(ProductDto.builder()
@@ -141,4 +192,37 @@ public class ProductKafkaMessageHandlerTest {
                     assertFalse(productRepository.existsById(created.id()));
                 });
     }
+
+    @Test
+    void shouldRelayNotificationFromOutbox() {
+        productKafkaMessageHandler.createProduct(CreateProductMessage.builder()
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(POTATO_TYPE)
+                .properties(Map.of(KCAL_AFTER_BOILED, KCAL_AFTER_BOILED_VALUE))
+                .build(), UUID.randomUUID().toString());
+
+        verify(kafkaTemplate, timeout(5000)).send(eq(notificationTopicName),
+                argThat(message -> message instanceof NotificationMessage notification
+                        && notification.code() == NotificationCode.PRODUCT_CREATED));
+        await()
+                .atMost(3, SECONDS)
+                .untilAsserted(() -> assertEquals(0, notificationOutboxRepository.count()));
+    }
+
+    @Test
+    void shouldSkipRedeliveredMessage() {
+        var messageKey = UUID.randomUUID().toString();
+        var createProductMessage = CreateProductMessage.builder()
+                .name(POTATO)
+                .kcal(POTATO_KCAL)
+                .type(POTATO_TYPE)
+                .build();
+
+        productKafkaMessageHandler.createProduct(createProductMessage, messageKey);
+        productKafkaMessageHandler.createProduct(createProductMessage, messageKey);
+
+        assertEquals(1, productRepository.count());
+        assertTrue(processedMessageRepository.existsById(messageKey));
+    }
 }
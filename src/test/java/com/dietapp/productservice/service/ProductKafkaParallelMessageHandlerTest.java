@@ -0,0 +1,133 @@
+package com.dietapp.productservice.service;
+
+import com.dietapp.productservice.model.BulkProductMessage;
+import com.dietapp.productservice.model.CreateProductMessage;
+import com.dietapp.productservice.model.DeleteProductMessage;
+import com.dietapp.productservice.model.PatchProductMessage;
+import com.dietapp.productservice.model.UpdateProductMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductKafkaParallelMessageHandlerTest {
+    private static final String TOPIC = "product.service.test";
+    private static final UUID POTATO_ID = UUID.randomUUID();
+    private static final UUID TOMATO_ID = UUID.randomUUID();
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductKafkaParallelMessageHandler handler;
+
+    @BeforeEach
+    void beforeEach() {
+        var productKafkaMessageHandler = mock(ProductKafkaMessageHandler.class);
+        doAnswer(i -> track("create " + i.<CreateProductMessage>getArgument(0).name()))
+                .when(productKafkaMessageHandler).createProduct(any(), any());
+        doAnswer(i -> track("update " + i.<UpdateProductMessage>getArgument(0).name()))
+                .when(productKafkaMessageHandler).updateProduct(any(), any());
+        doAnswer(i -> track("delete " + i.<DeleteProductMessage>getArgument(0).id()))
+                .when(productKafkaMessageHandler).deleteProduct(any(), any());
+        doAnswer(i -> track("patch " + i.<PatchProductMessage>getArgument(0).name()))
+                .when(productKafkaMessageHandler).patchProduct(any(), any());
+        doAnswer(i -> track("bulk"))
+                .when(productKafkaMessageHandler).bulkProducts(any(), any());
+        var messageDeduplicator = mock(MessageDeduplicator.class);
+        when(messageDeduplicator.keyOf(any())).thenAnswer(i -> "record:" + i.<ConsumerRecord<?, ?>>getArgument(0).offset());
+        this.handler = new ProductKafkaParallelMessageHandler(productKafkaMessageHandler, messageDeduplicator,
+                new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()), MAX_IN_FLIGHT, meterRegistry);
+    }
+
+    @Test
+    void shouldKeepOrderOfMessagesForTheSameProduct() {
+        handler.handleBatch(List.of(
+                record(0, update(POTATO_ID, "Potato 1")),
+                record(1, update(TOMATO_ID, "Tomato 1")),
+                record(2, update(POTATO_ID, "Potato 2")),
+                record(3, new DeleteProductMessage(TOMATO_ID)),
+                record(4, PatchProductMessage.builder().id(POTATO_ID).name("Potato 3").build()),
+                record(5, update(POTATO_ID, "Potato 4"))));
+
+        assertEquals(6, handled.size());
+        assertEquals(List.of("update Potato 1", "update Potato 2", "patch Potato 3", "update Potato 4"),
+                handled.stream().filter(message -> message.contains("Potato")).toList());
+        assertTrue(handled.indexOf("update Tomato 1") < handled.indexOf("delete " + TOMATO_ID));
+    }
+
+    @Test
+    void shouldProcessBulkMessageAfterPrecedingMessages() {
+        handler.handleBatch(List.of(
+                record(0, CreateProductMessage.builder().name("Potato").build()),
+                record(1, update(TOMATO_ID, "Tomato")),
+                record(2, BulkProductMessage.builder().build()),
+                record(3, update(POTATO_ID, "Potato"))));
+
+        assertEquals(4, handled.size());
+        assertEquals("bulk", handled.get(2));
+        assertEquals("update Potato", handled.get(3));
+    }
+
+    @Test
+    void shouldProcessCreatesInLanesOfTheirOwn() {
+        handler.handleBatch(List.of(
+                record(0, CreateProductMessage.builder().name("Potato").build()),
+                record(1, CreateProductMessage.builder().name("Potato").build())));
+
+        assertEquals(List.of("create Potato", "create Potato"), handled);
+        assertEquals(MAX_IN_FLIGHT, maxRunning.get());
+    }
+
+    @Test
+    void shouldNotExceedMaxInFlightWorkers() {
+        var records = new ArrayList<ConsumerRecord<String, Object>>();
+        for (var i = 0; i < 20; i++) {
+            records.add(record(i, update(UUID.randomUUID(), "Product " + i)));
+        }
+        records.add(new ConsumerRecord<>(TOPIC, 0, 20, null, null));
+
+        handler.handleBatch(records);
+
+        assertEquals(20, handled.size());
+        assertTrue(maxRunning.get() <= MAX_IN_FLIGHT);
+        assertEquals(0, meterRegistry.get("product.kafka.parallel.in.flight").gauge().value());
+    }
+
+    private Object track(String message) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(10);
+        handled.add(message);
+        running.decrementAndGet();
+        return null;
+    }
+
+    private UpdateProductMessage update(UUID id, String name) {
+        return UpdateProductMessage.builder()
+                .id(id)
+                .name(name)
+                .build();
+    }
+
+    private ConsumerRecord<String, Object> record(long offset, Object message) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, null, message);
+    }
+}
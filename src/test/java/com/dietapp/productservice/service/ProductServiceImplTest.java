@@ -1,31 +1,74 @@
 package com.dietapp.productservice.service;
 
+import com.dietapp.productservice.exception.InvalidCursorException;
+import com.dietapp.productservice.exception.InvalidRequestException;
 import com.dietapp.productservice.exception.ProductNotFoundException;
+import com.dietapp.productservice.exception.ProductVersionMismatchException;
 import com.dietapp.productservice.mapper.ProductMapper;
+import com.dietapp.productservice.model.CustomProperty;
 import com.dietapp.productservice.model.Product;
 import com.dietapp.productservice.model.ProductDto;
+import com.dietapp.productservice.model.ProductFilterCriteria;
+import com.dietapp.productservice.model.ProductOperation;
+import com.dietapp.productservice.model.ProductOperationResult;
+import com.dietapp.productservice.model.ProductPatchDto;
+import com.dietapp.productservice.model.ProductPropertiesStorage;
+import com.dietapp.productservice.model.ProductScrollSummary;
+import com.dietapp.productservice.model.ProductSearchCriteria;
+import com.dietapp.productservice.model.ProductSearchMode;
+import com.dietapp.productservice.model.ProductSummaryDto;
 import com.dietapp.productservice.model.ProductType;
+import com.dietapp.productservice.model.ProductVersionDto;
 import com.dietapp.productservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,15 +79,21 @@ class ProductServiceImplTest {
     private static final UUID PRODUCT_ID_THREE = UUID.randomUUID();
     private static final UUID PRODUCT_ID_NOT_EXISTS = UUID.randomUUID();
     private static final String POTATO = "Potato";
+    private static final Instant CREATED_DATE = Instant.now();
 
     private ProductService productService;
     private ProductRepository productRepository;
+    private CacheManager cacheManager;
+    private EntityManager entityManager;
 
     @BeforeEach
     void beforeAll() {
         var productMapper = Mappers.getMapper(ProductMapper.class);
         this.productRepository = mock(ProductRepository.class);
-        this.productService = new ProductServiceImpl(productRepository, productMapper);
+        this.cacheManager = new ConcurrentMapCacheManager(ProductCache.PRODUCTS_BY_ID, ProductCache.PRODUCTS_BY_NAME);
+        this.entityManager = mock(EntityManager.class);
+        this.productService = new ProductServiceImpl(productRepository, productMapper, new ProductCache(cacheManager),
+                entityManager, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
 
         when(this.productRepository.findAll(any(Pageable.class))).thenAnswer(i -> createPageFromList(i.getArgument(0)));
         when(this.productRepository.findById(any())).thenAnswer(i -> createProductList().stream()
@@ -62,7 +111,15 @@ class ProductServiceImplTest {
                     .properties(Set.of())
                     .build();
         });
-
+        when(this.productRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(this.productRepository.findFirstPage(any(Limit.class))).thenAnswer(i -> {
+            var limit = (Limit) i.getArgument(0);
+            var products = createProductList();
+            return products.subList(0, Math.min(limit.max(), products.size()));
+        });
+        when(this.productRepository.streamAll()).thenAnswer(i -> createProductList().stream());
+        when(this.productRepository.findPageAfter(any(), eq(PRODUCT_ID_TWO), any(Limit.class)))
+                .thenAnswer(i -> createProductList().subList(2, 3));
     }
 
     @Test
@@ -76,6 +133,133 @@ class ProductServiceImplTest {
         assertTrue(result.contains(PRODUCT_ID_THREE));
     }
 
+    @Test
+    void scrollShouldReturnNextCursorWhenMoreProductsExist() {
+        var firstPage = productService.scroll(null, 2);
+        assertEquals(List.of(PRODUCT_ID_ONE, PRODUCT_ID_TWO), firstPage.content().stream().map(ProductDto::id).toList());
+        assertTrue(firstPage.hasNext());
+
+        var secondPage = productService.scroll(firstPage.nextCursor(), 2);
+        assertEquals(List.of(PRODUCT_ID_THREE), secondPage.content().stream().map(ProductDto::id).toList());
+        assertFalse(secondPage.hasNext());
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void scrollShouldThrowExceptionForMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> productService.scroll("not-a-cursor", 2));
+    }
+
+    @Test
+    void scrollShouldThrowExceptionForPageSizeLessThanOne() {
+        assertThrows(InvalidRequestException.class, () -> productService.scroll(null, 0));
+    }
+
+    @Test
+    void scrollSummariesShouldReturnNextCursorWithoutLoadingEntities() {
+        var summaries = createProductList().stream()
+                .map(this::createScrollSummary)
+                .toList();
+        when(productRepository.findFirstSummaryPage(any(Limit.class))).thenReturn(summaries);
+        when(productRepository.findSummaryPageAfter(any(), eq(PRODUCT_ID_TWO), any(Limit.class)))
+                .thenReturn(summaries.subList(2, 3));
+
+        var firstPage = productService.scrollSummaries(null, 2);
+        assertEquals(List.of(PRODUCT_ID_ONE, PRODUCT_ID_TWO), firstPage.content().stream().map(ProductSummaryDto::id).toList());
+        assertTrue(firstPage.hasNext());
+
+        var secondPage = productService.scrollSummaries(firstPage.nextCursor(), 2);
+        assertEquals(List.of(PRODUCT_ID_THREE), secondPage.content().stream().map(ProductSummaryDto::id).toList());
+        assertFalse(secondPage.hasNext());
+        verify(productRepository, never()).findAllWithPropertiesByIdIn(any());
+    }
+
+    @Test
+    void getSummaryByNameShouldThrowExceptionWhenProductNotExists() {
+        when(productRepository.findSummaryByName(POTATO)).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getSummaryByName(POTATO));
+    }
+
+    @Test
+    void searchShouldEscapeLikeWildcardsInPrefix() {
+        productService.search(ProductSearchCriteria.builder()
+                .query("50%_fat")
+                .mode(ProductSearchMode.PREFIX)
+                .limit(10)
+                .build());
+
+        verify(productRepository).searchByNamePrefix("50\\%\\_fat%", true, "", 0, Double.MAX_VALUE, 10);
+        verify(productRepository, never()).searchByNameSimilarity(anyString(), anyBoolean(), anyString(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void searchShouldPassFiltersAndCapLimit() {
+        productService.search(ProductSearchCriteria.builder()
+                .query("potatoe")
+                .mode(ProductSearchMode.FUZZY)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .kcalMin(10.0)
+                .kcalMax(100.0)
+                .limit(1000)
+                .build());
+
+        verify(productRepository).searchByNameSimilarity("potatoe", false, ProductType.FRUITS_AND_VEGETABLES.name(), 10.0, 100.0, 100);
+    }
+
+    @Test
+    void searchShouldThrowExceptionForNonPositiveLimit() {
+        assertThrows(InvalidRequestException.class, () -> productService.search(ProductSearchCriteria.builder()
+                .query(POTATO)
+                .mode(ProductSearchMode.PREFIX)
+                .limit(0)
+                .build()));
+    }
+
+    @Test
+    void filterShouldPassConditionsAndCapPageSize() {
+        when(productRepository.filter(anyString(), anyBoolean(), anyString(), anyDouble(), anyDouble(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        productService.filter(ProductFilterCriteria.builder()
+                .properties(Map.of("vegan", "true"))
+                .type(ProductType.DAIRY)
+                .kcalMax(200.0)
+                .build(), PageRequest.of(2, 1000));
+
+        verify(productRepository).filter("{\"vegan\":\"true\"}", false, ProductType.DAIRY.name(), 0, 200.0, PageRequest.of(2, 100));
+    }
+
+    @Test
+    void filterShouldAllowConditionsWithoutProperties() {
+        when(productRepository.filter(anyString(), anyBoolean(), anyString(), anyDouble(), anyDouble(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        productService.filter(ProductFilterCriteria.builder()
+                .kcalMin(100.0)
+                .build(), PageRequest.of(0, 25));
+
+        verify(productRepository).filter("{}", true, "", 100.0, Double.MAX_VALUE, PageRequest.of(0, 25));
+    }
+
+    @Test
+    void filterShouldThrowExceptionWithoutConditions() {
+        assertThrows(InvalidRequestException.class, () -> productService.filter(ProductFilterCriteria.builder()
+                .properties(Map.of())
+                .build(), PageRequest.of(0, 25)));
+        verify(productRepository, never()).filter(anyString(), anyBoolean(), anyString(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    void exportShouldPassEveryProductToConsumer() {
+        var exportedIds = new ArrayList<UUID>();
+        productService.export(null, product -> exportedIds.add(product.id()));
+
+        assertEquals(List.of(PRODUCT_ID_ONE, PRODUCT_ID_TWO, PRODUCT_ID_THREE), exportedIds);
+        verify(productRepository).findAllWithPropertiesByIdIn(exportedIds);
+        verify(entityManager).clear();
+    }
+
     @Test
     void getByIdShouldReturnProperProduct() {
         var result = productService.getById(PRODUCT_ID_ONE);
@@ -116,20 +300,397 @@ class ProductServiceImplTest {
                 productService.update(UUID.randomUUID(), ProductDto.builder().build()));
     }
 
+    @Test
+    void updateShouldEvictCachedProductByIdAndNames() {
+        var productsById = cacheManager.getCache(ProductCache.PRODUCTS_BY_ID);
+        var productsByName = cacheManager.getCache(ProductCache.PRODUCTS_BY_NAME);
+        productsById.put(PRODUCT_ID_ONE, ProductDto.builder().id(PRODUCT_ID_ONE).name(POTATO).build());
+        productsByName.put(POTATO, ProductDto.builder().id(PRODUCT_ID_ONE).name(POTATO).build());
+        productsByName.put("Sweet potato", ProductDto.builder().name("Sweet potato").build());
+
+        productService.update(PRODUCT_ID_ONE, ProductDto.builder()
+                .name("Sweet potato")
+                .kcal(86.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(Map.of())
+                .build());
+
+        assertNull(productsById.get(PRODUCT_ID_ONE));
+        assertNull(productsByName.get(POTATO));
+        assertNull(productsByName.get("Sweet potato"));
+    }
+
+    @Test
+    void updateShouldApplyOnlyChangedProperties() {
+        var product = Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .kcal(77.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(new HashSet<>())
+                .build();
+        var unchanged = CustomProperty.builder().id(UUID.randomUUID()).name("color").value("yellow").product(product).build();
+        var changed = CustomProperty.builder().id(UUID.randomUUID()).name("origin").value("Poland").product(product).build();
+        var removed = CustomProperty.builder().id(UUID.randomUUID()).name("season").value("autumn").product(product).build();
+        product.getProperties().addAll(List.of(unchanged, changed, removed));
+        when(productRepository.findById(PRODUCT_ID_ONE)).thenReturn(Optional.of(product));
+
+        productService.update(PRODUCT_ID_ONE, ProductDto.builder()
+                .name(POTATO)
+                .kcal(77.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(Map.of("color", "yellow", "origin", "Germany", "shape", "round"))
+                .build());
+
+        var properties = product.getProperties().stream()
+                .collect(Collectors.toMap(CustomProperty::getName, Function.identity()));
+        assertEquals(Set.of("color", "origin", "shape"), properties.keySet());
+        assertSame(unchanged, properties.get("color"));
+        assertSame(changed, properties.get("origin"));
+        assertEquals("Germany", changed.getValue());
+        assertNull(properties.get("shape").getId());
+        assertNotNull(product.getLastUpdatedDate());
+        assertEquals(Map.of("color", "yellow", "origin", "Germany", "shape", "round"), product.getPropertiesDocument());
+    }
+
+    @Test
+    void updateShouldKeepPropertiesWhenOnlyProductFieldsChanged() {
+        var product = Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .kcal(77.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(new HashSet<>())
+                .build();
+        var property = CustomProperty.builder().id(UUID.randomUUID()).name("color").value("yellow").product(product).build();
+        product.getProperties().add(property);
+        when(productRepository.findById(PRODUCT_ID_ONE)).thenReturn(Optional.of(product));
+
+        productService.update(PRODUCT_ID_ONE, ProductDto.builder()
+                .name(POTATO)
+                .kcal(80.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(Map.of("color", "yellow"))
+                .build());
+
+        assertEquals(Set.of(property), product.getProperties());
+        assertSame(property, product.getProperties().iterator().next());
+        assertNull(product.getLastUpdatedDate());
+    }
+
+    @Test
+    void patchShouldApplyOnlySuppliedFieldsAndProperties() {
+        var product = createPatchableProduct();
+        when(productRepository.saveAndFlush(product)).thenReturn(product);
+
+        var result = productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .kcal(80.0)
+                .properties(propertiesWithNulls("origin", "Germany", "season", null))
+                .build(), 0);
+
+        assertTrue(result.isPresent());
+        assertEquals(POTATO, product.getName());
+        assertEquals(80.0, product.getKcal());
+        assertEquals(ProductType.FRUITS_AND_VEGETABLES, product.getType());
+        assertEquals(Map.of("color", "yellow", "origin", "Germany"), result.get().properties());
+        verify(productRepository).saveAndFlush(product);
+    }
+
+    @Test
+    void patchShouldNotSaveWhenNothingChanged() {
+        var product = createPatchableProduct();
+        var productsById = cacheManager.getCache(ProductCache.PRODUCTS_BY_ID);
+        productsById.put(PRODUCT_ID_ONE, ProductDto.builder().id(PRODUCT_ID_ONE).name(POTATO).build());
+
+        var result = productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .name(POTATO)
+                .kcal(77.0)
+                .properties(propertiesWithNulls("color", "yellow", "shape", null))
+                .build(), null);
+
+        assertTrue(result.isEmpty());
+        assertEquals(3, product.getProperties().size());
+        assertNull(product.getLastUpdatedDate());
+        assertNotNull(productsById.get(PRODUCT_ID_ONE));
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void createShouldKeepPropertiesOnlyInDocumentWithDocumentStorage() {
+        useDocumentStorage();
+
+        productService.create(ProductDto.builder()
+                .name(POTATO)
+                .kcal(73.0)
+                .properties(Map.of("color", "yellow"))
+                .build());
+
+        verify(productRepository).saveAndFlush(argThat(product -> product.getProperties().isEmpty()
+                && Map.of("color", "yellow").equals(product.getPropertiesDocument())));
+    }
+
+    @Test
+    void getByIdShouldReadPropertiesFromDocumentWithDocumentStorage() {
+        useDocumentStorage();
+        when(entityManager.find(Product.class, PRODUCT_ID_ONE)).thenReturn(Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .propertiesDocument(Map.of("color", "yellow"))
+                .build());
+
+        var product = productService.getById(PRODUCT_ID_ONE);
+
+        assertEquals(Map.of("color", "yellow"), product.properties());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void patchShouldMergePropertiesIntoDocumentWithDocumentStorage() {
+        useDocumentStorage();
+        var product = Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .propertiesDocument(Map.of("color", "yellow", "season", "summer"))
+                .build();
+        when(entityManager.find(Product.class, PRODUCT_ID_ONE)).thenReturn(product);
+        when(productRepository.saveAndFlush(product)).thenReturn(product);
+
+        var result = productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .properties(propertiesWithNulls("origin", "Germany", "season", null))
+                .build(), null);
+
+        assertEquals(Map.of("color", "yellow", "origin", "Germany"), result.orElseThrow().properties());
+        assertNull(product.getProperties());
+        assertNotNull(product.getLastUpdatedDate());
+    }
+
+    @Test
+    void patchShouldRejectInvalidDocumentPropertyWithDocumentStorage() {
+        useDocumentStorage();
+        when(entityManager.find(Product.class, PRODUCT_ID_ONE)).thenReturn(Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .propertiesDocument(Map.of())
+                .build());
+
+        assertThrows(InvalidRequestException.class, () -> productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .properties(Map.of("", "yellow"))
+                .build(), null));
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patchShouldRejectNegativeKcal() {
+        createPatchableProduct();
+
+        assertThrows(InvalidRequestException.class, () -> productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .kcal(-1.0)
+                .build(), null));
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patchShouldRejectEmptyName() {
+        createPatchableProduct();
+
+        assertThrows(InvalidRequestException.class, () -> productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder()
+                .name("")
+                .build(), null));
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patchShouldThrowsProductNotFoundException() {
+        assertThrows(ProductNotFoundException.class, () ->
+                productService.patch(UUID.randomUUID(), ProductPatchDto.builder().build(), null));
+    }
+
+    @Test
+    void patchShouldThrowsProductVersionMismatchException() {
+        var product = createPatchableProduct();
+
+        assertThrows(ProductVersionMismatchException.class, () ->
+                productService.patch(PRODUCT_ID_ONE, ProductPatchDto.builder().kcal(80.0).build(), 5));
+        assertEquals(77.0, product.getKcal());
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void getByIdsShouldPreserveOrderAndReportMissingIds() {
+        cacheManager.getCache(ProductCache.PRODUCTS_BY_ID)
+                .put(PRODUCT_ID_TWO, ProductDto.builder().id(PRODUCT_ID_TWO).name(POTATO).build());
+        when(productRepository.findAllWithPropertiesByIdIn(any())).thenAnswer(i -> {
+            Collection<UUID> ids = i.getArgument(0);
+            return createProductList().stream()
+                    .filter(product -> ids.contains(product.getId()))
+                    .toList()
+                    .reversed();
+        });
+
+        var result = productService.getByIds(List.of(PRODUCT_ID_THREE, PRODUCT_ID_NOT_EXISTS, PRODUCT_ID_TWO,
+                PRODUCT_ID_ONE, PRODUCT_ID_THREE));
+
+        assertEquals(List.of(PRODUCT_ID_THREE, PRODUCT_ID_TWO, PRODUCT_ID_ONE),
+                result.products().stream().map(ProductDto::id).toList());
+        assertEquals(List.of(PRODUCT_ID_NOT_EXISTS), result.missingIds());
+        verify(productRepository).findAllWithPropertiesByIdIn(List.of(PRODUCT_ID_THREE, PRODUCT_ID_NOT_EXISTS, PRODUCT_ID_ONE));
+    }
+
+    @Test
+    void getByIdsShouldLoadUncachedProductsInChunks() {
+        var ids = IntStream.range(0, 250).mapToObj(i -> UUID.randomUUID()).toList();
+
+        var result = productService.getByIds(ids);
+
+        assertTrue(result.products().isEmpty());
+        assertEquals(ids, result.missingIds());
+        verify(productRepository, times(3)).findAllWithPropertiesByIdIn(any());
+    }
+
+    @Test
+    void getByIdsShouldRejectTooManyIds() {
+        var ids = IntStream.range(0, 501).mapToObj(i -> UUID.randomUUID()).toList();
+
+        assertThrows(InvalidRequestException.class, () -> productService.getByIds(ids));
+        verify(productRepository, never()).findAllWithPropertiesByIdIn(any());
+    }
+
+    @Test
+    void getByIdsShouldRejectNullIds() {
+        var ids = Arrays.asList(PRODUCT_ID_ONE, null);
+
+        assertThrows(InvalidRequestException.class, () -> productService.getByIds(ids));
+        verify(productRepository, never()).findAllWithPropertiesByIdIn(any());
+    }
+
+    @Test
+    void getVersionShouldUseCachedProduct() {
+        cacheManager.getCache(ProductCache.PRODUCTS_BY_ID)
+                .put(PRODUCT_ID_ONE, ProductDto.builder().id(PRODUCT_ID_ONE).version(4).lastUpdatedDate(CREATED_DATE).build());
+
+        assertEquals(new ProductVersionDto(4, CREATED_DATE), productService.getVersion(PRODUCT_ID_ONE));
+        verify(productRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void getVersionShouldThrowsProductNotFoundException() {
+        when(productRepository.findVersionById(any())).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getVersion(PRODUCT_ID_NOT_EXISTS));
+    }
+
+    @Test
+    void deleteShouldEvictCachedProduct() {
+        var productsById = cacheManager.getCache(ProductCache.PRODUCTS_BY_ID);
+        var productsByName = cacheManager.getCache(ProductCache.PRODUCTS_BY_NAME);
+        productsById.put(PRODUCT_ID_ONE, ProductDto.builder().id(PRODUCT_ID_ONE).name(POTATO).build());
+        productsByName.put(POTATO, ProductDto.builder().id(PRODUCT_ID_ONE).name(POTATO).build());
+
+        productService.delete(PRODUCT_ID_ONE);
+
+        assertNull(productsById.get(PRODUCT_ID_ONE));
+        assertNull(productsByName.get(POTATO));
+    }
+
+    @Test
+    void processBatchShouldApplyAllOperationsWithSingleFlush() {
+        var productDto = ProductDto.builder()
+                .name(POTATO)
+                .kcal(73.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(Map.of())
+                .build();
+
+        var results = productService.processBatch(List.of(
+                ProductOperation.create(productDto),
+                ProductOperation.update(PRODUCT_ID_TWO, productDto),
+                ProductOperation.delete(PRODUCT_ID_ONE)));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(ProductOperationResult::isSuccessful));
+        assertEquals(PRODUCT_ID_TWO, results.get(1).product().id());
+        assertEquals(POTATO, results.get(2).product().name());
+        verify(productRepository).save(any(Product.class));
+        verify(productRepository).delete(any(Product.class));
+        verify(productRepository, times(1)).flush();
+    }
+
+    @Test
+    void processBatchShouldReportNotFoundProductAndContinue() {
+        var results = productService.processBatch(List.of(
+                ProductOperation.delete(PRODUCT_ID_NOT_EXISTS),
+                ProductOperation.delete(PRODUCT_ID_ONE)));
+
+        assertFalse(results.get(0).isSuccessful());
+        assertTrue(results.get(0).error() instanceof ProductNotFoundException);
+        assertTrue(results.get(1).isSuccessful());
+        verify(productRepository, times(1)).flush();
+    }
+
+    @Test
+    void processBatchShouldReportInvalidProductWithoutSavingIt() {
+        var results = productService.processBatch(List.of(
+                ProductOperation.create(ProductDto.builder()
+                        .name(POTATO)
+                        .kcal(-1.0)
+                        .properties(Map.of())
+                        .build()),
+                ProductOperation.create(ProductDto.builder()
+                        .name(POTATO)
+                        .kcal(73.0)
+                        .properties(Map.of())
+                        .build())));
+
+        assertFalse(results.get(0).isSuccessful());
+        assertTrue(results.get(0).error() instanceof ConstraintViolationException);
+        assertTrue(results.get(1).isSuccessful());
+        verify(productRepository, times(1)).save(any(Product.class));
+    }
+
+    @Test
+    void processBatchShouldApplyOperationsWithoutProperties() {
+        var productDto = ProductDto.builder()
+                .name(POTATO)
+                .kcal(73.0)
+                .build();
+
+        var results = productService.processBatch(List.of(
+                ProductOperation.create(productDto),
+                ProductOperation.update(PRODUCT_ID_TWO, productDto)));
+
+        assertTrue(results.stream().allMatch(ProductOperationResult::isSuccessful));
+        verify(productRepository).save(any(Product.class));
+    }
+
+    private ProductScrollSummary createScrollSummary(Product product) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ProductScrollSummary.class, Map.of(
+                "id", product.getId(),
+                "name", product.getName(),
+                "kcal", 73.0,
+                "type", ProductType.FRUITS_AND_VEGETABLES,
+                "createdDate", product.getCreatedDate()));
+    }
+
+    private void useDocumentStorage() {
+        ReflectionTestUtils.setField(productService, "propertiesStorage", ProductPropertiesStorage.DOCUMENT);
+    }
 
     private List<Product> createProductList() {
         return List.of(Product.builder()
                         .id(PRODUCT_ID_ONE)
+                        .createdDate(CREATED_DATE)
                         .properties(new HashSet<>())
                         .name(POTATO)
                         .build(),
                 Product.builder()
                         .id(PRODUCT_ID_TWO)
+                        .createdDate(CREATED_DATE)
                         .properties(new HashSet<>())
                         .name(POTATO)
                         .build(),
                 Product.builder()
                         .id(PRODUCT_ID_THREE)
+                        .createdDate(CREATED_DATE)
                         .properties(new HashSet<>())
                         .name(POTATO)
                         .build());
@@ -144,4 +705,27 @@ class ProductServiceImplTest {
 
         return new PageImpl<>(pageContent, pageable, products.size());
     }
+
+    private Product createPatchableProduct() {
+        var product = Product.builder()
+                .id(PRODUCT_ID_ONE)
+                .name(POTATO)
+                .kcal(77.0)
+                .type(ProductType.FRUITS_AND_VEGETABLES)
+                .properties(new HashSet<>())
+                .build();
+        product.getProperties().addAll(List.of(
+                CustomProperty.builder().name("color").value("yellow").product(product).build(),
+                CustomProperty.builder().name("origin").value("Poland").product(product).build(),
+                CustomProperty.builder().name("season").value("autumn").product(product).build()));
+        when(productRepository.findById(PRODUCT_ID_ONE)).thenReturn(Optional.of(product));
+        return product;
+    }
+
+    private Map<String, String> propertiesWithNulls(String firstName, String firstValue, String secondName, String secondValue) {
+        var properties = new HashMap<String, String>();
+        properties.put(firstName, firstValue);
+        properties.put(secondName, secondValue);
+        return properties;
+    }
 }
\ No newline at end of file